@@ -9,6 +9,7 @@ import static java.lang.System.Logger.Level.WARNING;
 import java.io.StringReader;
 import java.time.Instant;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
@@ -62,6 +63,7 @@ public final class AppConfigPlugin implements ConfigurationSource {
     private final long nextRefreshSeconds;
 
     private String currentVersion = "none";
+    private Set<String> currentKeys = Set.of();
 
     Loader(Configuration configuration) {
       this.validUntil = new AtomicReference<>(Instant.now().minusSeconds(1));
@@ -156,9 +158,17 @@ public final class AppConfigPlugin implements ConfigurationSource {
           log.log(TRACE, "AwsAppConfig fetched version:{0} contentType:{1} contentLength:{2,number,#}", result.version(), contentType, contentLength);
         }
         Map<String, String> keyValues = parse(result);
-        configuration.eventBuilder("AwsAppConfig")
-          .putAll(keyValues)
-          .publish();
+        // as a layer such that removed keys fall back to the other sources
+        var builder = configuration.eventBuilder("AwsAppConfig")
+          .layer("AwsAppConfig")
+          .putAll(keyValues);
+        for (String key : currentKeys) {
+          if (!keyValues.containsKey(key)) {
+            builder.remove(key);
+          }
+        }
+        builder.publish();
+        currentKeys = keyValues.keySet();
         currentVersion = result.version();
         debugLog(result, keyValues.size());
       }
@@ -0,0 +1,114 @@
+package io.avaje.config.generator;
+
+import java.util.Map;
+
+/**
+ * A property of a binding, being an interface method or a record component.
+ */
+final class BindingProperty {
+
+  /**
+   * How a supported type is read, the required getter and the parse function for optional values.
+   */
+  private static final Map<String, String[]> READERS = Map.of(
+    "java.lang.String", new String[]{"get", null},
+    "int", new String[]{"getInt", "Integer::valueOf"},
+    "long", new String[]{"getLong", "Long::valueOf"},
+    "boolean", new String[]{"getBool", "Boolean::valueOf"},
+    "java.math.BigDecimal", new String[]{"getDecimal", "java.math.BigDecimal::new"},
+    "java.net.URI", new String[]{"getURI", "java.net.URI::create"},
+    "java.time.Duration", new String[]{"getDuration", "java.time.Duration::parse"});
+
+  private static final Map<String, String> BOXED = Map.of(
+    "java.lang.Integer", "int",
+    "java.lang.Long", "long",
+    "java.lang.Boolean", "boolean");
+
+  private static final Map<String, String> BOX = Map.of(
+    "int", "java.lang.Integer",
+    "long", "java.lang.Long",
+    "boolean", "java.lang.Boolean");
+
+  private final String name;
+  private final String key;
+  private final String type;
+  private final String requiredGetter;
+  private final String parseFunction;
+  private final boolean enumType;
+  private final boolean defaultMethod;
+  private final boolean optional;
+
+  private BindingProperty(String name, String key, String type, String readType, boolean enumType, boolean defaultMethod, boolean optional) {
+    this.name = name;
+    this.key = key;
+    this.type = type;
+    this.enumType = enumType;
+    this.defaultMethod = defaultMethod;
+    this.optional = optional;
+    if (enumType) {
+      this.requiredGetter = "getEnum";
+      this.parseFunction = readType + "::valueOf";
+    } else {
+      final String[] reader = READERS.get(readType);
+      this.requiredGetter = reader[0];
+      this.parseFunction = reader[1];
+    }
+  }
+
+  /**
+   * Create the property returning null when the type is not supported.
+   *
+   * @param type          The type as it is written in source
+   * @param enumType      True when the type is an enum
+   * @param defaultMethod True for an interface default method (which provides the default value)
+   */
+  static BindingProperty of(String name, String key, String type, boolean enumType, boolean defaultMethod) {
+    final String unboxed = BOXED.get(type);
+    if (unboxed != null) {
+      return new BindingProperty(name, key, type, unboxed, false, defaultMethod, true);
+    }
+    if (!enumType && !READERS.containsKey(type)) {
+      return null;
+    }
+    return new BindingProperty(name, key, type, type, enumType, defaultMethod, defaultMethod);
+  }
+
+  String name() {
+    return name;
+  }
+
+  String key() {
+    return key;
+  }
+
+  String type() {
+    return type;
+  }
+
+  boolean defaultMethod() {
+    return defaultMethod;
+  }
+
+  /**
+   * The type of the cached value, boxed when the value is optional.
+   */
+  String valueType() {
+    return optional ? BOX.getOrDefault(type, type) : type;
+  }
+
+  /**
+   * The expression that reads the value from the configuration.
+   */
+  String readExpression() {
+    final String quotedKey = '"' + key + '"';
+    if (!optional) {
+      return enumType
+        ? "configuration.getEnum(" + type + ".class, " + quotedKey + ")"
+        : "configuration." + requiredGetter + "(" + quotedKey + ")";
+    }
+    if (parseFunction == null) {
+      return "configuration.getNullable(" + quotedKey + ")";
+    }
+    return "configuration.getOptional(" + quotedKey + ").map(" + parseFunction + ").orElse(null)";
+  }
+}
@@ -0,0 +1,132 @@
+package io.avaje.config.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the source of the generated binding.
+ */
+final class BindingWriter {
+
+  private final String packageName;
+  private final String bindingName;
+  private final String typeName;
+  private final String path;
+  private final boolean record;
+  private final List<BindingProperty> properties;
+  private final StringBuilder sb = new StringBuilder(2000);
+
+  BindingWriter(String packageName, String bindingName, String typeName, String path, boolean record, List<BindingProperty> properties) {
+    this.packageName = packageName;
+    this.bindingName = bindingName;
+    this.typeName = typeName;
+    this.path = path;
+    this.record = record;
+    this.properties = properties;
+  }
+
+  void write(Writer writer) throws IOException {
+    if (!packageName.isEmpty()) {
+      line("package %s;", packageName).line();
+    }
+    line("import io.avaje.config.Configuration;").line();
+    line("/**");
+    line(" * Configuration binding for {@link %s} generated by avaje-config-generator.", typeName);
+    line(" */");
+    if (record) {
+      writeRecordBinding();
+    } else {
+      writeInterfaceBinding();
+    }
+    writer.write(sb.toString());
+  }
+
+  private void writeRecordBinding() {
+    line("public final class %s implements java.util.function.Supplier<%s> {", bindingName, typeName).line();
+    line("  private final Configuration configuration;");
+    line("  private volatile %s value;", typeName).line();
+    writeConstructor("value = bind(this.configuration)");
+    line("  /**");
+    line("   * Return the current value which is replaced when the properties are modified.");
+    line("   */");
+    line("  @Override");
+    line("  public %s get() {", typeName);
+    line("    return value;");
+    line("  }").line();
+    line("  private static %s bind(Configuration configuration) {", typeName);
+    line("    return new %s(", typeName);
+    for (int i = 0; i < properties.size(); i++) {
+      line("      %s%s", properties.get(i).readExpression(), i < properties.size() - 1 ? "," : ");");
+    }
+    if (properties.isEmpty()) {
+      line("    );");
+    }
+    line("  }");
+    line("}");
+  }
+
+  private void writeInterfaceBinding() {
+    line("public final class %s implements %s {", bindingName, typeName).line();
+    line("  private final Configuration configuration;");
+    line("  private volatile Values values;").line();
+    writeConstructor("values = new Values(this.configuration)");
+    for (BindingProperty property : properties) {
+      line("  @Override");
+      line("  public %s %s() {", property.type(), property.name());
+      if (property.defaultMethod()) {
+        line("    final %s value = values.%s;", property.valueType(), property.name());
+        line("    return value != null ? value : %s.super.%s();", typeName, property.name());
+      } else {
+        line("    return values.%s;", property.name());
+      }
+      line("  }").line();
+    }
+    line("  /**");
+    line("   * The values bound together such that they are replaced atomically.");
+    line("   */");
+    line("  private static final class Values {").line();
+    for (BindingProperty property : properties) {
+      line("    private final %s %s;", property.valueType(), property.name());
+    }
+    line();
+    line("    Values(Configuration configuration) {");
+    for (BindingProperty property : properties) {
+      line("      this.%s = %s;", property.name(), property.readExpression());
+    }
+    line("    }");
+    line("  }");
+    line("}");
+  }
+
+  private void writeConstructor(String bind) {
+    line("  /**");
+    line("   * Bind the properties under {@code %s} re-binding when they are modified.", path);
+    line("   */");
+    line("  public %s(Configuration configuration) {", bindingName);
+    if (path.isEmpty()) {
+      line("    this.configuration = configuration;");
+    } else {
+      line("    this.configuration = configuration.forPath(\"%s\");", path);
+    }
+    line("    this.%s;", bind);
+    if (!properties.isEmpty()) {
+      final String keys = properties.stream()
+        .map(property -> '"' + property.key() + '"')
+        .collect(Collectors.joining(", "));
+      line("    this.configuration.onChange(event -> %s, %s);", bind, keys);
+    }
+    line("  }").line();
+  }
+
+  private BindingWriter line(String format, Object... args) {
+    sb.append(String.format(format, args)).append('\n');
+    return this;
+  }
+
+  private BindingWriter line() {
+    sb.append('\n');
+    return this;
+  }
+}
@@ -0,0 +1,190 @@
+package io.avaje.config.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates the configuration bindings for types annotated with {@code @ConfigBinding}.
+ * <p>
+ * For an interface the binding implements the interface and for a record the binding
+ * supplies instances of the record. The values are read via the generated code
+ * without any reflection.
+ */
+public final class ConfigBindingProcessor extends AbstractProcessor {
+
+  static final String CONFIG_BINDING = "io.avaje.config.ConfigBinding";
+  static final String KEY = CONFIG_BINDING + ".Key";
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Set.of(CONFIG_BINDING);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    final TypeElement annotation = processingEnv.getElementUtils().getTypeElement(CONFIG_BINDING);
+    if (annotation == null) {
+      return false;
+    }
+    for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+      if (element instanceof TypeElement) {
+        process((TypeElement) element);
+      }
+    }
+    return false;
+  }
+
+  private void process(TypeElement type) {
+    final boolean record = "RECORD".equals(type.getKind().name());
+    if (!record && type.getKind() != ElementKind.INTERFACE) {
+      error(type, "@ConfigBinding is only supported on interfaces and records");
+      return;
+    }
+    if (!type.getTypeParameters().isEmpty()) {
+      error(type, "@ConfigBinding is not supported on types with type parameters");
+      return;
+    }
+    final List<BindingProperty> properties = record ? recordProperties(type) : interfaceProperties(type);
+    if (properties == null) {
+      return;
+    }
+    final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    final String bindingName = flatName(type) + "Binding";
+    final String qualifiedName = packageName.isEmpty() ? bindingName : packageName + '.' + bindingName;
+    final String path = annotationValue(type, CONFIG_BINDING);
+    final var bindingWriter = new BindingWriter(packageName, bindingName, type.getQualifiedName().toString(), path, record, properties);
+    try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+      bindingWriter.write(writer);
+    } catch (IOException e) {
+      error(type, "Failed to write " + qualifiedName + " " + e);
+    }
+  }
+
+  /**
+   * Return the properties for the record components (via the record fields which are in component order).
+   */
+  private List<BindingProperty> recordProperties(TypeElement type) {
+    final List<BindingProperty> properties = new ArrayList<>();
+    final List<ExecutableElement> methods = ElementFilter.methodsIn(type.getEnclosedElements());
+    boolean valid = true;
+    for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+      if (field.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      final String name = field.getSimpleName().toString();
+      // annotations on the record component propagate to the accessor method
+      final Element accessor = methods.stream()
+        .filter(method -> method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty())
+        .findFirst()
+        .orElse(null);
+      final BindingProperty property = property(field, accessor == null ? field : accessor, name, field.asType(), false);
+      if (property == null) {
+        valid = false;
+      } else {
+        properties.add(property);
+      }
+    }
+    return valid ? properties : null;
+  }
+
+  /**
+   * Return the properties for the abstract and default methods of the interface (and its super interfaces).
+   */
+  private List<BindingProperty> interfaceProperties(TypeElement type) {
+    final List<BindingProperty> properties = new ArrayList<>();
+    boolean valid = true;
+    for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+      final Set<Modifier> modifiers = method.getModifiers();
+      if (method.getEnclosingElement().getKind() != ElementKind.INTERFACE
+        || modifiers.contains(Modifier.STATIC)
+        || modifiers.contains(Modifier.PRIVATE)) {
+        continue;
+      }
+      if (!method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID) {
+        error(method, "@ConfigBinding methods must have no parameters and return a value");
+        valid = false;
+        continue;
+      }
+      final String name = method.getSimpleName().toString();
+      final BindingProperty property = property(method, method, name, method.getReturnType(), modifiers.contains(Modifier.DEFAULT));
+      if (property == null) {
+        valid = false;
+      } else {
+        properties.add(property);
+      }
+    }
+    return valid ? properties : null;
+  }
+
+  private BindingProperty property(Element element, Element keyElement, String name, TypeMirror type, boolean defaultMethod) {
+    final String key = annotationValue(keyElement, KEY);
+    final boolean enumType = type.getKind() == TypeKind.DECLARED
+      && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+    final String typeName = enumType ? ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString() : type.toString();
+    final BindingProperty property = BindingProperty.of(name, key.isEmpty() ? name : key, typeName, enumType, defaultMethod);
+    if (property == null) {
+      error(element, "Unsupported @ConfigBinding type " + type + " for " + name);
+    }
+    return property;
+  }
+
+  /**
+   * Return the value of the given annotation or empty string if the annotation is not present.
+   */
+  private static String annotationValue(Element element, String annotationType) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      final Element annotation = mirror.getAnnotationType().asElement();
+      if (((TypeElement) annotation).getQualifiedName().contentEquals(annotationType)) {
+        for (var entry : mirror.getElementValues().entrySet()) {
+          if (entry.getKey().getSimpleName().contentEquals("value")) {
+            final AnnotationValue value = entry.getValue();
+            return value.getValue().toString();
+          }
+        }
+      }
+    }
+    return "";
+  }
+
+  /**
+   * Return the simple names of the type and its enclosing types joined (for nested types).
+   */
+  private static String flatName(TypeElement type) {
+    final var name = new StringBuilder(type.getSimpleName());
+    Element enclosing = type.getEnclosingElement();
+    while (enclosing instanceof TypeElement) {
+      name.insert(0, enclosing.getSimpleName());
+      enclosing = enclosing.getEnclosingElement();
+    }
+    return name.toString();
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+}
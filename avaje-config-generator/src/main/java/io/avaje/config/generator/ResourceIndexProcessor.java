@@ -0,0 +1,96 @@
+package io.avaje.config.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates the index of the {@code application*} resources in the class output directory.
+ * <p>
+ * The resources are copied to the class output before compilation (Maven process-resources)
+ * such that the index lists the resources that will be in the jar. At startup avaje-config
+ * uses the index to read the resources directly from the jar or directory containing them.
+ * <p>
+ * This is opt-in via the processor option {@code -Aavaje.config.resources=true} such that
+ * libraries compiled with the generator (for example for {@code @ConfigBinding}) do not ship
+ * an index. As the resources are not annotated this runs for any (including no) annotations.
+ */
+public final class ResourceIndexProcessor extends AbstractProcessor {
+
+  static final String OPTION = "avaje.config.resources";
+  static final String INDEX = "META-INF/avaje-config/resources.idx";
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Set.of("*");
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return Set.of(OPTION);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (roundEnv.processingOver() && Boolean.parseBoolean(processingEnv.getOptions().get(OPTION))) {
+      writeIndex();
+    }
+    return false;
+  }
+
+  private void writeIndex() {
+    try {
+      final FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+      // the class output directory being the parent of META-INF/avaje-config
+      final Path root = Path.of(index.toUri()).getParent().getParent().getParent();
+      final Set<String> names = resourceNames(root);
+      try (Writer writer = index.openWriter()) {
+        writer.write("# application resources generated by avaje-config-generator\n");
+        for (String name : names) {
+          writer.write(name);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      warn("Failed to write " + INDEX + " " + e);
+    }
+  }
+
+  private void warn(String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message);
+  }
+
+  /**
+   * Return the names of the application resources in the class output directory.
+   */
+  private static Set<String> resourceNames(Path root) throws IOException {
+    final Set<String> names = new TreeSet<>();
+    if (Files.isDirectory(root)) {
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, "application*")) {
+        for (Path file : stream) {
+          if (Files.isRegularFile(file)) {
+            names.add(file.getFileName().toString());
+          }
+        }
+      }
+    }
+    return names;
+  }
+}
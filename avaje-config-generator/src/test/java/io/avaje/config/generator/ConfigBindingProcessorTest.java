@@ -0,0 +1,153 @@
+package io.avaje.config.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.avaje.config.Configuration;
+
+class ConfigBindingProcessorTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void interfaceBinding() throws Exception {
+    ClassLoader loader = compile("DbConfig",
+      "package org.example;\n" +
+      "import io.avaje.config.ConfigBinding;\n" +
+      "import java.time.Duration;\n" +
+      "@ConfigBinding(\"app.db\")\n" +
+      "public interface DbConfig {\n" +
+      "  String url();\n" +
+      "  int maxConnections();\n" +
+      "  Long minIdle();\n" +
+      "  @ConfigBinding.Key(\"timeout.duration\")\n" +
+      "  default Duration timeout() { return Duration.ofSeconds(30); }\n" +
+      "  default boolean active() { return true; }\n" +
+      "}\n");
+
+    Configuration configuration = Configuration.builder()
+      .put("app.db.url", "jdbc:h2:mem")
+      .put("app.db.maxConnections", "10")
+      .build();
+
+    Object binding = loader.loadClass("org.example.DbConfigBinding")
+      .getConstructor(Configuration.class)
+      .newInstance(configuration);
+
+    assertThat(invoke(binding, "url")).isEqualTo("jdbc:h2:mem");
+    assertThat(invoke(binding, "maxConnections")).isEqualTo(10);
+    assertThat(invoke(binding, "minIdle")).isNull();
+    assertThat(invoke(binding, "timeout")).isEqualTo(Duration.ofSeconds(30));
+    assertThat(invoke(binding, "active")).isEqualTo(true);
+
+    configuration.eventBuilder("test")
+      .put("app.db.maxConnections", "20")
+      .put("app.db.minIdle", "2")
+      .put("app.db.timeout.duration", "PT5S")
+      .put("app.db.active", "false")
+      .publish();
+
+    assertThat(invoke(binding, "maxConnections")).isEqualTo(20);
+    assertThat(invoke(binding, "minIdle")).isEqualTo(2L);
+    assertThat(invoke(binding, "timeout")).isEqualTo(Duration.ofSeconds(5));
+    assertThat(invoke(binding, "active")).isEqualTo(false);
+  }
+
+  @Test
+  void recordBinding() throws Exception {
+    ClassLoader loader = compile("Server",
+      "package org.example;\n" +
+      "import io.avaje.config.ConfigBinding;\n" +
+      "@ConfigBinding(\"server\")\n" +
+      "public record Server(String host, int port, Mode mode, Boolean tls) {\n" +
+      "  public enum Mode { ONE, TWO }\n" +
+      "}\n");
+
+    Configuration configuration = Configuration.builder()
+      .put("server.host", "localhost")
+      .put("server.port", "8080")
+      .put("server.mode", "TWO")
+      .build();
+
+    @SuppressWarnings("unchecked")
+    Supplier<Object> binding = (Supplier<Object>) loader.loadClass("org.example.ServerBinding")
+      .getConstructor(Configuration.class)
+      .newInstance(configuration);
+
+    Object server = binding.get();
+    assertThat(server).hasToString("Server[host=localhost, port=8080, mode=TWO, tls=null]");
+    assertThat(binding.get()).isSameAs(server);
+
+    configuration.setProperty("server.port", "9090");
+    assertThat(binding.get()).hasToString("Server[host=localhost, port=9090, mode=TWO, tls=null]");
+
+    // not one of the bound keys
+    Object current = binding.get();
+    configuration.setProperty("server.other", "x");
+    assertThat(binding.get()).isSameAs(current);
+  }
+
+  @Test
+  void unsupportedType_expect_error() throws Exception {
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    boolean success = compile(diagnostics, "Bad",
+      "package org.example;\n" +
+      "@io.avaje.config.ConfigBinding(\"bad\")\n" +
+      "public interface Bad {\n" +
+      "  java.util.List<String> values();\n" +
+      "}\n");
+
+    assertThat(success).isFalse();
+    assertThat(diagnostics.getDiagnostics().toString()).contains("Unsupported @ConfigBinding type");
+  }
+
+  private static Object invoke(Object binding, String method) throws Exception {
+    Method accessor = binding.getClass().getMethod(method);
+    return accessor.invoke(binding);
+  }
+
+  private ClassLoader compile(String name, String source) throws Exception {
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    assertThat(compile(diagnostics, name, source)).as(diagnostics.getDiagnostics().toString()).isTrue();
+    return new URLClassLoader(new URL[]{dir.resolve("classes").toUri().toURL()}, getClass().getClassLoader());
+  }
+
+  private boolean compile(DiagnosticCollector<JavaFileObject> diagnostics, String name, String source) throws Exception {
+    Path sourceFile = dir.resolve("src/org/example/" + name + ".java");
+    Files.createDirectories(sourceFile.getParent());
+    Files.writeString(sourceFile, source);
+    Path classes = Files.createDirectories(dir.resolve("classes"));
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+      Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sourceFile.toFile());
+      List<String> options = List.of(
+        "-classpath", System.getProperty("java.class.path"),
+        "-d", classes.toString(),
+        "-s", Files.createDirectories(dir.resolve("generated")).toString(),
+        "-sourcepath", dir.resolve("src").toString() + File.pathSeparator);
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, units);
+      task.setProcessors(List.of(new ConfigBindingProcessor()));
+      return task.call();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package io.avaje.config.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResourceIndexProcessorTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void index_expect_applicationResourcesListed() throws Exception {
+    Path classes = Files.createDirectories(dir.resolve("classes"));
+    Files.writeString(classes.resolve("application.yaml"), "a: 1");
+    Files.writeString(classes.resolve("application-dev.properties"), "a=2");
+    Files.writeString(classes.resolve("logback.xml"), "<configuration/>");
+    compile(classes, "-Aavaje.config.resources=true");
+
+    List<String> lines = Files.readAllLines(classes.resolve(ResourceIndexProcessor.INDEX));
+    assertThat(lines).filteredOn(line -> !line.startsWith("#"))
+      .containsExactly("application-dev.properties", "application.yaml");
+  }
+
+  @Test
+  void index_withoutOption_expect_notWritten() throws Exception {
+    Path classes = Files.createDirectories(dir.resolve("classes"));
+    Files.writeString(classes.resolve("application.yaml"), "a: 1");
+    compile(classes);
+
+    assertThat(classes.resolve(ResourceIndexProcessor.INDEX)).doesNotExist();
+  }
+
+  private void compile(Path classes, String... options) throws Exception {
+    Path sourceFile = dir.resolve("src/org/example/Foo.java");
+    Files.createDirectories(sourceFile.getParent());
+    Files.writeString(sourceFile, "package org.example;\npublic class Foo {}\n");
+
+    List<String> args = new ArrayList<>(List.of("-d", classes.toString()));
+    args.addAll(List.of(options));
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+      Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sourceFile.toFile());
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, args, null, units);
+      task.setProcessors(List.of(new ResourceIndexProcessor()));
+      assertThat(task.call()).as(diagnostics.getDiagnostics().toString()).isTrue();
+    }
+  }
+
+}
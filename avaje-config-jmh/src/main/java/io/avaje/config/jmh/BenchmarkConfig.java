@@ -0,0 +1,31 @@
+package io.avaje.config.jmh;
+
+import io.avaje.config.Configuration;
+
+/**
+ * The configuration used by the benchmarks.
+ */
+final class BenchmarkConfig {
+
+  private BenchmarkConfig() {
+  }
+
+  static Configuration create() {
+    final var builder = Configuration.builder()
+      .put("feature.cleanup", "true")
+      .put("app.port", "8090")
+      .put("app.timeoutMillis", "30000")
+      .put("app.timeout", "PT30S")
+      .put("app.codes", "42,54,97,103")
+      .put("app.names", "one,two,three")
+      .put("app.db.url", "jdbc:postgresql://localhost:5432/app")
+      .put("app.db.user", "app")
+      .put("app.db.maxConnections", "20");
+
+    // some filler such that the configuration is a realistic size
+    for (int i = 0; i < 200; i++) {
+      builder.put("filler.group" + (i % 10) + ".key" + i, "value" + i);
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,31 @@
+package io.avaje.config.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks with the GC profiler (allocation per operation).
+ * <p>
+ * Accepts the usual JMH command line options, for example to run only the
+ * read benchmarks:
+ * <pre>{@code
+ *
+ *   java -jar avaje-config-jmh/target/benchmarks.jar ReadBenchmark
+ *
+ * }</pre>
+ */
+public final class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    final var options = new OptionsBuilder()
+      .parent(new CommandLineOptions(args))
+      .addProfiler(GCProfiler.class)
+      .build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,67 @@
+package io.avaje.config.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.avaje.config.Configuration;
+
+/**
+ * Multi threaded benchmarks with readers only and with readers alongside writers
+ * publishing changes (like a feature toggle being flipped).
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentionBenchmark {
+
+  private Configuration configuration;
+  private int counter;
+
+  @Setup
+  public void setup() {
+    configuration = BenchmarkConfig.create();
+  }
+
+  @Benchmark
+  @Group("read")
+  @GroupThreads(4)
+  public boolean read_getBool() {
+    return configuration.getBool("feature.cleanup", false);
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(3)
+  public boolean readWrite_getBool() {
+    return configuration.getBool("feature.cleanup", false);
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(1)
+  public void readWrite_setProperty() {
+    configuration.setProperty("app.port", String.valueOf(counter++ & 1023));
+  }
+
+  @Benchmark
+  @Group("publish")
+  @GroupThreads(4)
+  public void publish_setProperty() {
+    configuration.setProperty("app.port", String.valueOf(Thread.currentThread().getId() * 1000 + (counter++ & 511)));
+  }
+}
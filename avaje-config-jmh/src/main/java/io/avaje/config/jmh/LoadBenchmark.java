@@ -0,0 +1,102 @@
+package io.avaje.config.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.avaje.config.tools.BinaryConfigConverter;
+import io.avaje.config.Configuration;
+
+/**
+ * Loading (parsing) the same key values from yaml, properties and the binary format.
+ * <p>
+ * The yaml is parsed by the built in parser (snakeyaml is not on the benchmark classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBenchmark {
+
+  @Param({"100", "10000"})
+  public int groups;
+
+  private Path directory;
+  private File yaml;
+  private File properties;
+  private File binary;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("avaje-config-jmh");
+    final StringBuilder yamlContent = new StringBuilder();
+    final StringBuilder propertiesContent = new StringBuilder();
+    final Map<String, String> values = new LinkedHashMap<>();
+    for (int i = 0; i < groups; i++) {
+      yamlContent.append("route").append(i).append(":\n")
+        .append("  path: /api/v1/resource").append(i).append("\n")
+        .append("  timeout: 30s # request timeout\n")
+        .append("  methods: [GET, POST]\n")
+        .append("  upstream:\n")
+        .append("    host: 'svc").append(i).append(".internal'\n")
+        .append("    port: 8080\n");
+      values.put("route" + i + ".path", "/api/v1/resource" + i);
+      values.put("route" + i + ".timeout", "30s");
+      values.put("route" + i + ".methods", "GET,POST");
+      values.put("route" + i + ".upstream.host", "svc" + i + ".internal");
+      values.put("route" + i + ".upstream.port", "8080");
+    }
+    values.forEach((key, value) -> propertiesContent.append(key).append('=').append(value).append('\n'));
+
+    yaml = Files.writeString(directory.resolve("routes.yaml"), yamlContent).toFile();
+    properties = Files.writeString(directory.resolve("routes.properties"), propertiesContent).toFile();
+    binary = directory.resolve("routes.bconf").toFile();
+    try (OutputStream out = Files.newOutputStream(binary.toPath())) {
+      BinaryConfigConverter.write(values, out);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.delete(yaml.toPath());
+    Files.delete(properties.toPath());
+    Files.delete(binary.toPath());
+    Files.delete(directory);
+  }
+
+  @Benchmark
+  public Configuration load_yaml() {
+    return Configuration.builder().load(yaml).build();
+  }
+
+  @Benchmark
+  public Configuration load_properties() {
+    return Configuration.builder().load(properties).build();
+  }
+
+  @Benchmark
+  public Configuration load_bconf() {
+    return Configuration.builder().load(binary).build();
+  }
+}
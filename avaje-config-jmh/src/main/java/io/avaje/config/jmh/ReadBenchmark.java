@@ -0,0 +1,101 @@
+package io.avaje.config.jmh;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.avaje.config.Configuration;
+
+/**
+ * Single threaded benchmarks of the read path.
+ * <p>
+ * {@code Config.getBool()} etc delegate to the same Configuration methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark {
+
+  private Configuration configuration;
+  private Properties evalSource;
+
+  @Setup
+  public void setup() {
+    configuration = BenchmarkConfig.create();
+    evalSource = new Properties();
+    evalSource.setProperty("host", "localhost");
+    evalSource.setProperty("url", "jdbc:postgresql://${host}:5432/app");
+    evalSource.setProperty("plain", "no expressions");
+  }
+
+  @Benchmark
+  public boolean getBool_hit() {
+    return configuration.getBool("feature.cleanup", false);
+  }
+
+  @Benchmark
+  public boolean getBool_miss() {
+    return configuration.getBool("feature.notDefined", false);
+  }
+
+  @Benchmark
+  public boolean enabled_hit() {
+    return configuration.enabled("feature.cleanup", false);
+  }
+
+  @Benchmark
+  public boolean enabled_miss() {
+    return configuration.enabled("feature.alsoNotDefined", true);
+  }
+
+  @Benchmark
+  public int getInt() {
+    return configuration.getInt("app.port");
+  }
+
+  @Benchmark
+  public long getLong() {
+    return configuration.getLong("app.timeoutMillis");
+  }
+
+  @Benchmark
+  public Duration getDuration() {
+    return configuration.getDuration("app.timeout");
+  }
+
+  @Benchmark
+  public List<Integer> list_ofInt() {
+    return configuration.list().ofInt("app.codes");
+  }
+
+  @Benchmark
+  public Set<String> set_of() {
+    return configuration.set().of("app.names");
+  }
+
+  @Benchmark
+  public int forPath() {
+    return configuration.forPath("app.db").getInt("maxConnections");
+  }
+
+  @Benchmark
+  public Properties eval() {
+    return configuration.eval(evalSource);
+  }
+}
@@ -0,0 +1,71 @@
+package io.avaje.config.tools;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import io.avaje.config.BinaryConfigWriter;
+import io.avaje.config.ConfigParser;
+
+/**
+ * Converts properties, yaml (and other supported formats such as toml) to the compact
+ * binary configuration format ({@code .bconf}).
+ * <p>
+ * Large configuration (for example generated routing tables) in the binary format is
+ * loaded without text parsing.
+ *
+ * <pre>{@code
+ *
+ *   java -cp avaje-config.jar:avaje-config-tools.jar io.avaje.config.tools.BinaryConfigConverter routes.yaml routes.bconf
+ *
+ * }</pre>
+ */
+public final class BinaryConfigConverter {
+
+  private BinaryConfigConverter() {
+  }
+
+  /**
+   * Convert the source file to the binary format.
+   *
+   * @param args The source file (with a supported extension) and the destination file
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: BinaryConfigConverter <source.properties|yaml|yml|toml> <destination.bconf>");
+      System.exit(1);
+    }
+    final int size = convert(Path.of(args[0]), Path.of(args[1]));
+    System.out.println("Wrote " + size + " entries to " + args[1]);
+  }
+
+  /**
+   * Parse the source file and write it in the binary format to the destination.
+   *
+   * @return The number of entries written
+   */
+  public static int convert(Path source, Path destination) throws IOException {
+    final String name = source.getFileName().toString();
+    final Map<String, String> values;
+    final ConfigParser parser = ConfigParser.forExtension(name.substring(name.lastIndexOf('.') + 1))
+      .orElseThrow(() -> new IllegalArgumentException("No parser registered for " + source));
+    try (InputStream is = Files.newInputStream(source)) {
+      values = parser.load(is);
+    }
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(destination))) {
+      write(values, out);
+    }
+    return values.size();
+  }
+
+  /**
+   * Write the key values in the binary format.
+   */
+  public static void write(Map<String, String> keyValues, OutputStream out) throws IOException {
+    BinaryConfigWriter.write(keyValues, out);
+  }
+}
@@ -0,0 +1,108 @@
+package io.avaje.config.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+import io.avaje.config.ConfigParser;
+
+/**
+ * Writes the build time snapshots of the pre-parsed {@code application*} resources.
+ * <p>
+ * Run with the class output directory (after the resources are copied there) for example
+ * via the exec-maven-plugin in the {@code process-classes} phase or prior to building a
+ * native image. Each resource gets its own snapshot
+ * {@code META-INF/avaje-config/snapshot/<resource>.properties} starting with the CRC of the
+ * resource content. At startup (with {@code config.resource.snapshot=true}) the snapshot
+ * values are used in place of parsing the resource.
+ */
+public final class ConfigSnapshotWriter {
+
+  static final String DIRECTORY = "META-INF/avaje-config/snapshot/";
+  static final String CRC_PREFIX = "#crc=";
+
+  private ConfigSnapshotWriter() {
+  }
+
+  /**
+   * Write the snapshots of the application resources of the given directory.
+   *
+   * @param args The class output directory (containing the application resources)
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: ConfigSnapshotWriter <classesDirectory>");
+      System.exit(1);
+    }
+    final Set<String> resources = write(Path.of(args[0]));
+    System.out.println("Wrote snapshots of " + resources);
+  }
+
+  /**
+   * Parse the application resources of the directory writing a snapshot of each.
+   *
+   * @param directory The class output directory containing the application resources
+   * @return The names of the resources with a snapshot
+   */
+  public static Set<String> write(Path directory) throws IOException {
+    final Set<String> resources = new TreeSet<>();
+    if (!Files.isDirectory(directory)) {
+      return resources;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "application*")) {
+      for (Path file : stream) {
+        final String name = file.getFileName().toString();
+        final String extension = name.substring(name.lastIndexOf('.') + 1);
+        // the binary format is not parsed up front so is not included
+        final Optional<ConfigParser> parser = "bconf".equals(extension) ? Optional.empty() : ConfigParser.forExtension(extension);
+        if (parser.isPresent() && Files.isRegularFile(file)) {
+          final byte[] content = Files.readAllBytes(file);
+          final Map<String, String> values = parser.get().load(new ByteArrayInputStream(content));
+          final Path snapshot = directory.resolve(DIRECTORY + name + ".properties");
+          Files.createDirectories(snapshot.getParent());
+          Files.write(snapshot, snapshot(values, crc(content)).getBytes(StandardCharsets.ISO_8859_1));
+          resources.add(name);
+        }
+      }
+    }
+    return resources;
+  }
+
+  /**
+   * Return the CRC line followed by the values in key order without the timestamp comment (reproducible builds).
+   */
+  static String snapshot(Map<String, String> values, long crc) throws IOException {
+    final Properties properties = new Properties();
+    properties.putAll(values);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // escapes non latin-1 characters
+    properties.store(out, null);
+    final Set<String> lines = new TreeSet<>();
+    for (String line : out.toString(StandardCharsets.ISO_8859_1).split("\\R")) {
+      if (!line.isEmpty() && !line.startsWith("#")) {
+        lines.add(line);
+      }
+    }
+    final StringBuilder sb = new StringBuilder(CRC_PREFIX).append(Long.toHexString(crc)).append('\n');
+    for (String line : lines) {
+      sb.append(line).append('\n');
+    }
+    return sb.toString();
+  }
+
+  static long crc(byte[] content) {
+    final CRC32 crc = new CRC32();
+    crc.update(content);
+    return crc.getValue();
+  }
+}
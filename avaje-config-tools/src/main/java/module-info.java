@@ -0,0 +1,7 @@
+module io.avaje.config.tools {
+
+  requires io.avaje.config;
+
+  exports io.avaje.config.tools;
+
+}
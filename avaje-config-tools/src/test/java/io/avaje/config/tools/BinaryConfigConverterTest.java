@@ -0,0 +1,60 @@
+package io.avaje.config.tools;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.avaje.config.Configuration;
+
+class BinaryConfigConverterTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void write_expect_loadedViaBuilder() throws IOException {
+    Map<String, String> source = new LinkedHashMap<>();
+    source.put("route.b", "shared");
+    source.put("route.a", "shared");
+    source.put("route.c", "unicode ü €");
+    source.put("route.a.b", "");
+    Path file = dir.resolve("routes.bconf");
+    try (var out = Files.newOutputStream(file)) {
+      BinaryConfigConverter.write(source, out);
+    }
+
+    Configuration configuration = Configuration.builder().load(file.toFile()).build();
+    assertThat(configuration.get("route.a")).isEqualTo("shared");
+    assertThat(configuration.get("route.b")).isEqualTo("shared");
+    assertThat(configuration.get("route.c")).isEqualTo("unicode ü €");
+    assertThat(configuration.get("route.a.b", "notEmpty")).isEmpty();
+  }
+
+  @Test
+  void convert_yaml_expect_loadedViaBuilder() throws IOException {
+    Path yaml = dir.resolve("routes.yaml");
+    Files.writeString(yaml, "routes:\n  one: /a\n  two: /b\n");
+    Path bconf = dir.resolve("routes.bconf");
+
+    assertThat(BinaryConfigConverter.convert(yaml, bconf)).isEqualTo(2);
+
+    Configuration configuration = Configuration.builder().load(bconf.toFile()).build();
+    assertThat(configuration.get("routes.one")).isEqualTo("/a");
+    assertThat(configuration.get("routes.two")).isEqualTo("/b");
+  }
+
+  @Test
+  void convert_unsupportedExtension() throws IOException {
+    Path xml = Files.writeString(dir.resolve("routes.xml"), "<routes/>");
+    assertThatThrownBy(() -> BinaryConfigConverter.convert(xml, dir.resolve("routes.bconf")))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+}
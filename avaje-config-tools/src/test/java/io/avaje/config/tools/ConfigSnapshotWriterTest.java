@@ -0,0 +1,36 @@
+package io.avaje.config.tools;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConfigSnapshotWriterTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void write_expect_snapshotPerApplicationResource() throws Exception {
+    Files.writeString(dir.resolve("application.yaml"), "a: 1\nb:\n  c: x");
+    Files.writeString(dir.resolve("application-dev.properties"), "a=2");
+    Files.writeString(dir.resolve("logback.xml"), "<configuration/>");
+
+    assertThat(ConfigSnapshotWriter.write(dir)).containsExactly("application-dev.properties", "application.yaml");
+
+    Path snapshots = dir.resolve(ConfigSnapshotWriter.DIRECTORY);
+    assertThat(Files.readAllLines(snapshots.resolve("application.yaml.properties")))
+      .containsExactly("#crc=" + crc("a: 1\nb:\n  c: x"), "a=1", "b.c=x");
+    assertThat(Files.readAllLines(snapshots.resolve("application-dev.properties.properties")))
+      .containsExactly("#crc=" + crc("a=2"), "a=2");
+    assertThat(snapshots.resolve("logback.xml.properties")).doesNotExist();
+  }
+
+  private static String crc(String content) {
+    return Long.toHexString(ConfigSnapshotWriter.crc(content.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,124 @@
+package io.avaje.config;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Parser for the compact binary configuration format ({@code .bconf}) written by
+ * {@link BinaryConfigWriter} (typically via the {@code BinaryConfigConverter} of avaje-config-tools).
+ * <p>
+ * Files are memory mapped and decoded without text parsing. Each distinct string is stored
+ * (and decoded) once such that repeated values share the same String instance.
+ * <p>
+ * The layout (big endian) is:
+ * <pre>
+ *   int magic, int version, int entryCount, int stringCount
+ *   int[entryCount]     value string id of each entry (entry i has key string id i, keys sorted)
+ *   int[stringCount+1]  offset of each string in the string data
+ *   byte[]              string data (UTF-8)
+ * </pre>
+ * The content is binary so is only loaded via an InputStream, not a Reader.
+ */
+@NullMarked
+final class BinaryConfigParser implements ConfigParser {
+
+  static final int MAGIC = 0x42434E46;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 16;
+
+  private static final String[] extensions = {"bconf"};
+
+  @Override
+  public String[] supportedExtensions() {
+    return extensions;
+  }
+
+  /**
+   * Not supported as the binary content must be read as bytes, load via an InputStream.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public Map<String, String> load(Reader reader) {
+    throw new UnsupportedOperationException("bconf is a binary format, load it via an InputStream");
+  }
+
+  @Override
+  public Map<String, String> load(InputStream is) {
+    try {
+      return decode(buffer(is));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Memory map the remaining content of a file otherwise read the content.
+   */
+  private static ByteBuffer buffer(InputStream is) throws IOException {
+    if (is instanceof FileInputStream) {
+      final FileChannel channel = ((FileInputStream) is).getChannel();
+      final long position = channel.position();
+      return channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position);
+    }
+    return ByteBuffer.wrap(is.readAllBytes());
+  }
+
+  /**
+   * Validate and decode the binary content returning the entries in key order.
+   */
+  static Map<String, String> decode(ByteBuffer buffer) {
+    final int limit = buffer.limit();
+    if (limit < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("Invalid bconf content");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IllegalArgumentException("Unsupported bconf version " + buffer.getInt(4));
+    }
+    final int size = buffer.getInt(8);
+    final int stringCount = buffer.getInt(12);
+    if (size < 0 || stringCount < size) {
+      throw new IllegalArgumentException("Invalid bconf content, entryCount:" + size + " stringCount:" + stringCount);
+    }
+    final long offsetsPos = HEADER_SIZE + 4L * size;
+    final long dataPos = offsetsPos + 4L * (stringCount + 1L);
+    if (dataPos > limit) {
+      throw new IllegalArgumentException("Invalid bconf content, truncated at " + limit + " bytes");
+    }
+    final int dataLength = limit - (int) dataPos;
+    final String[] strings = new String[stringCount];
+    int start = buffer.getInt((int) offsetsPos);
+    if (start != 0) {
+      throw new IllegalArgumentException("Invalid bconf content, string data offset " + start);
+    }
+    for (int id = 0; id < stringCount; id++) {
+      final int end = buffer.getInt((int) offsetsPos + 4 * (id + 1));
+      if (end < start || end > dataLength) {
+        throw new IllegalArgumentException("Invalid bconf content, string " + id + " offset " + end);
+      }
+      final ByteBuffer bytes = buffer.duplicate();
+      bytes.limit((int) dataPos + end).position((int) dataPos + start);
+      strings[id] = StandardCharsets.UTF_8.decode(bytes).toString();
+      start = end;
+    }
+    final Map<String, String> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+    for (int i = 0; i < size; i++) {
+      final int valueId = buffer.getInt(HEADER_SIZE + 4 * i);
+      if (valueId < 0 || valueId >= stringCount) {
+        throw new IllegalArgumentException("Invalid bconf content, entry " + i + " value id " + valueId);
+      }
+      map.put(strings[i], strings[valueId]);
+    }
+    return map;
+  }
+}
@@ -0,0 +1,73 @@
+package io.avaje.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Writes key values in the compact binary configuration format ({@code .bconf}).
+ * <p>
+ * The layout is described by (and read back via) the bconf parser such that the
+ * format is defined in one place. Typically used via the {@code BinaryConfigConverter}
+ * of avaje-config-tools.
+ */
+@NullMarked
+public final class BinaryConfigWriter {
+
+  private BinaryConfigWriter() {
+  }
+
+  /**
+   * Write the key values in the binary format.
+   */
+  public static void write(Map<String, String> keyValues, OutputStream out) throws IOException {
+    final TreeMap<String, String> sorted = new TreeMap<>(keyValues);
+    // string table with the sorted keys first such that the key of entry i is string i
+    final Map<String, Integer> ids = new HashMap<>();
+    final List<String> strings = new ArrayList<>(sorted.keySet());
+    for (int i = 0; i < strings.size(); i++) {
+      ids.put(strings.get(i), i);
+    }
+    final int[] valueIds = new int[sorted.size()];
+    int index = 0;
+    for (String value : sorted.values()) {
+      Integer id = ids.get(value);
+      if (id == null) {
+        id = strings.size();
+        strings.add(value);
+        ids.put(value, id);
+      }
+      valueIds[index++] = id;
+    }
+
+    final ByteArrayOutputStream data = new ByteArrayOutputStream();
+    final int[] offsets = new int[strings.size() + 1];
+    for (int i = 0; i < strings.size(); i++) {
+      data.write(strings.get(i).getBytes(StandardCharsets.UTF_8));
+      offsets[i + 1] = data.size();
+    }
+
+    final DataOutputStream dataOut = new DataOutputStream(out);
+    dataOut.writeInt(BinaryConfigParser.MAGIC);
+    dataOut.writeInt(BinaryConfigParser.VERSION);
+    dataOut.writeInt(valueIds.length);
+    dataOut.writeInt(strings.size());
+    for (int valueId : valueIds) {
+      dataOut.writeInt(valueId);
+    }
+    for (int offset : offsets) {
+      dataOut.writeInt(offset);
+    }
+    data.writeTo(dataOut);
+    dataOut.flush();
+  }
+}
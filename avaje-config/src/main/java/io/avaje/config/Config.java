@@ -119,6 +119,23 @@ public class Config {
     return data.forPath(pathPrefix);
   }
 
+  /**
+   * Return a consistent point in time snapshot of the configuration.
+   *
+   * @see Configuration#snapshot()
+   */
+  public static Configuration snapshot() {
+    return data.snapshot();
+  }
+
+  /**
+   * Return the version of the configuration which is incremented each
+   * time changes are published.
+   */
+  public static long version() {
+    return data.version();
+  }
+
   /**
    * Return the underlying configuration.
    */
@@ -443,6 +460,63 @@ public class Config {
     return data.getAsOptional(key, mappingFunction);
   }
 
+  /**
+   * Return a live int property for the given key.
+   * <p>
+   * The property holds the parsed value and is updated when the configuration
+   * changes such that reading the value does not involve any lookup or parsing.
+   *
+   * @param key          The configuration key
+   * @param defaultValue The value used when the property is not defined
+   * @return The live property
+   */
+  public static Configuration.IntProperty intProperty(String key, int defaultValue) {
+    return data.intProperty(key, defaultValue);
+  }
+
+  /**
+   * Return a live long property for the given key.
+   *
+   * @param key          The configuration key
+   * @param defaultValue The value used when the property is not defined
+   * @return The live property
+   */
+  public static Configuration.LongProperty longProperty(String key, long defaultValue) {
+    return data.longProperty(key, defaultValue);
+  }
+
+  /**
+   * Return a live boolean property for the given key.
+   *
+   * <pre>{@code
+   *
+   *   static final BoolProperty CLEANUP = Config.boolProperty("feature.cleanup", false);
+   *   ...
+   *   if (CLEANUP.get()) {
+   *     ...
+   *   }
+   *
+   * }</pre>
+   *
+   * @param key          The configuration key
+   * @param defaultValue The value used when the property is not defined
+   * @return The live property
+   */
+  public static Configuration.BoolProperty boolProperty(String key, boolean defaultValue) {
+    return data.boolProperty(key, defaultValue);
+  }
+
+  /**
+   * Return a live Duration property for the given key.
+   *
+   * @param key          The configuration key
+   * @param defaultValue The value used when the property is not defined
+   * @return The live property
+   */
+  public static Configuration.DurationProperty durationProperty(String key, Duration defaultValue) {
+    return data.durationProperty(key, defaultValue);
+  }
+
   /**
    * Return a List of values configured.
    *
@@ -563,6 +637,21 @@ public class Config {
     data.onChange(bulkChangeEventListener, keys);
   }
 
+  /**
+   * Register an event listener with a coalescing window.
+   * <p>
+   * Changes that occur within the window are merged and delivered as a single event
+   * containing all the modified keys once the window has elapsed.
+   *
+   * @param bulkChangeEventListener The listener that is called when changes have occurred
+   * @param coalesceWindow          The window over which changes are merged into one event
+   * @param keys                    Optionally specify keys when the listener is only interested
+   *                                if changes are made for these specific properties
+   */
+  public static void onChange(Consumer<ModificationEvent> bulkChangeEventListener, Duration coalesceWindow, String... keys) {
+    data.onChange(bulkChangeEventListener, coalesceWindow, keys);
+  }
+
   /**
    * Register a callback for a change to the given configuration key.
    * <p>
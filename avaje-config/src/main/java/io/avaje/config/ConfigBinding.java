@@ -0,0 +1,85 @@
+package io.avaje.config;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Mark an interface or record to have a typed configuration binding generated
+ * at compile time by {@code avaje-config-generator}.
+ * <p>
+ * The generated {@code <Type>Binding} class reads the properties under the given
+ * path via {@link Configuration#forPath(String)}, caches the parsed values and
+ * re-binds them when any of the properties are modified. No reflection is used.
+ *
+ * <h3>Interface</h3>
+ * <p>
+ * The generated binding implements the interface. Default methods provide the
+ * default value used when the property is not defined.
+ *
+ * <pre>{@code
+ *
+ *   @ConfigBinding("app.db")
+ *   public interface DbConfig {
+ *
+ *     String url();
+ *
+ *     int maxConnections();
+ *
+ *     default Duration timeout() {
+ *       return Duration.ofSeconds(30);
+ *     }
+ *   }
+ *
+ *   DbConfig dbConfig = new DbConfigBinding(configuration);
+ *   int max = dbConfig.maxConnections(); // reads "app.db.maxConnections"
+ *
+ * }</pre>
+ *
+ * <h3>Record</h3>
+ * <p>
+ * The generated binding supplies the current instance of the record which is
+ * replaced by a new instance when the properties are modified. Components with
+ * a boxed type (e.g. {@code Integer}) are optional and null when not defined.
+ *
+ * <pre>{@code
+ *
+ *   @ConfigBinding("app.db")
+ *   public record DbConfig(String url, int maxConnections, Integer minIdle) { }
+ *
+ *   DbConfigBinding binding = new DbConfigBinding(configuration);
+ *   DbConfig dbConfig = binding.get();
+ *
+ * }</pre>
+ *
+ * <h3>Supported types</h3>
+ * <p>
+ * {@code String, int, long, boolean} (and their boxed types), {@code BigDecimal,
+ * URI, Duration} and enums.
+ */
+@Retention(CLASS)
+@Target(TYPE)
+public @interface ConfigBinding {
+
+  /**
+   * The path of the properties (e.g. {@code "app.db"}).
+   */
+  String value();
+
+  /**
+   * Specify the property key (relative to the path) for a method or record
+   * component. Defaults to the name of the method or record component.
+   */
+  @Retention(CLASS)
+  @Target(METHOD)
+  @interface Key {
+
+    /**
+     * The property key relative to the path.
+     */
+    String value();
+  }
+}
@@ -0,0 +1,159 @@
+package io.avaje.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A drop-in directory (conf.d style) of configuration files loaded in lexical order.
+ * <p>
+ * Files with a supported extension are loaded with later files overriding earlier ones.
+ * Hidden files are ignored which includes the {@code ..data} and timestamped directories
+ * of Kubernetes ConfigMap and Secret volumes.
+ * <p>
+ * For such volumes the files are swapped atomically by changing the {@code ..data} symlink
+ * and the symlink target is used as the generation such that the directory is reloaded once
+ * per generation. Otherwise the directory is reloaded when files are added, removed or
+ * modified.
+ */
+@NullMarked
+final class ConfigDirectory {
+
+  private static final String K8S_DATA = "..data";
+
+  private final Path dir;
+  private final Parsers parsers;
+  private @Nullable String generation;
+  private Map<String, Long> stamps = Map.of();
+  private Map<String, String> values = Map.of();
+
+  ConfigDirectory(Path dir, Parsers parsers) {
+    this.dir = dir;
+    this.parsers = parsers;
+  }
+
+  @Override
+  public String toString() {
+    return dir.toString();
+  }
+
+  Path path() {
+    return dir;
+  }
+
+  /**
+   * Return the layer name of the directory.
+   */
+  String layerName() {
+    return "dir:" + dir;
+  }
+
+  /**
+   * Return the values last loaded from the directory.
+   */
+  Map<String, String> values() {
+    return values;
+  }
+
+  /**
+   * Load all the files returning the merged values.
+   */
+  Map<String, String> load() {
+    this.generation = generation();
+    final Map<String, Long> newStamps = new HashMap<>();
+    final Map<String, String> newValues = new LinkedHashMap<>();
+    for (Path file : files()) {
+      final String name = file.getFileName().toString();
+      final var parser = parsers.get(extension(name));
+      try (InputStream is = Files.newInputStream(file)) {
+        newValues.putAll(parser.load(is));
+        newStamps.put(name, stamp(file));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Error loading config file " + file, e);
+      }
+    }
+    this.stamps = newStamps;
+    this.values = newValues;
+    return newValues;
+  }
+
+  /**
+   * Return true if the directory has a new generation or otherwise the files have changed.
+   */
+  boolean changed() {
+    final String current = generation();
+    if (current != null || generation != null) {
+      return !Objects.equals(current, generation);
+    }
+    final List<Path> files = files();
+    if (files.size() != stamps.size()) {
+      return true;
+    }
+    for (Path file : files) {
+      final Long stamp = stamps.get(file.getFileName().toString());
+      if (stamp == null || stamp != stamp(file)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return the target of the {@code ..data} symlink or null when the directory is not a Kubernetes volume.
+   */
+  @Nullable
+  private String generation() {
+    final Path data = dir.resolve(K8S_DATA);
+    if (!Files.isSymbolicLink(data)) {
+      return null;
+    }
+    try {
+      return Files.readSymbolicLink(data).toString();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Return the supported files in lexical order.
+   */
+  private List<Path> files() {
+    final List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+      for (Path file : stream) {
+        final String name = file.getFileName().toString();
+        if (!name.startsWith(".") && parsers.supportsExtension(extension(name)) && Files.isRegularFile(file)) {
+          files.add(file);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading config directory " + dir, e);
+    }
+    files.sort(null);
+    return files;
+  }
+
+  private static long stamp(Path file) {
+    try {
+      return Files.getLastModifiedTime(file).toMillis() * 31 + Files.size(file);
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  private static String extension(String name) {
+    return name.substring(name.lastIndexOf('.') + 1);
+  }
+}
@@ -3,6 +3,7 @@ package io.avaje.config;
 import java.io.InputStream;
 import java.io.Reader;
 import java.util.Map;
+import java.util.Optional;
 
 import org.jspecify.annotations.NullMarked;
 
@@ -32,4 +33,18 @@ public interface ConfigParser extends ConfigExtension {
    * @return Key-Value pairs of all the configs
    */
   Map<String, String> load(InputStream is);
+
+  /**
+   * Return the parser for the given file extension without building a Configuration.
+   * <p>
+   * This includes the built in parsers (properties, yaml and bconf) and the parsers
+   * registered as ConfigExtension via ServiceLoader. Used by build time tooling that
+   * parses configuration files.
+   *
+   * @param extension The file extension (for example "yaml")
+   * @return The parser for the extension or empty when not supported
+   */
+  static Optional<ConfigParser> forExtension(String extension) {
+    return Optional.ofNullable(Parsers.withServiceLoaded().get(extension));
+  }
 }
@@ -70,9 +70,50 @@ public interface Configuration {
    * // will output "2"
    * number = config2.getInt("prefix2");
    * }</pre>
+   * <p>
+   * The returned configuration is a live view that reflects later modifications
+   * and listeners registered on it are notified of changes under the path (with
+   * keys relative to the path). Views are cached per path while in use.
    */
   Configuration forPath(String pathPrefix);
 
+  /**
+   * Return a consistent point in time snapshot of the configuration.
+   * <p>
+   * Changes are published atomically as a new version of the configuration. The
+   * snapshot is not affected by changes published after it was taken and so provides
+   * consistent reads across multiple keys without any locking.
+   * <p>
+   * The snapshot is read only, making changes to it (e.g. via {@link #setProperty(String, String)})
+   * throws an IllegalStateException and closing it has no effect.
+   *
+   * <pre>{@code
+   *
+   *   Configuration snapshot = configuration.snapshot();
+   *   // url and user are from the same version of the configuration
+   *   String url = snapshot.get("db.url");
+   *   String user = snapshot.get("db.user");
+   *
+   * }</pre>
+   * <p>
+   * The default implementation returns a copy of the current properties.
+   */
+  default Configuration snapshot() {
+    return Configuration.builder().putAll(asProperties()).build();
+  }
+
+  /**
+   * Return the version of the configuration.
+   * <p>
+   * The version is incremented each time changes are published and can be used
+   * to cheaply detect that the configuration has changed.
+   * <p>
+   * The default implementation returns 0 (versions not supported).
+   */
+  default long version() {
+    return 0;
+  }
+
   /**
    * Return the entry for the given key.
    */
@@ -342,6 +383,122 @@ public interface Configuration {
    */
   <T extends Enum<T>> T getEnum(Class<T> type, String key, T defaultValue);
 
+  /**
+   * Return a live int property for the given key.
+   * <p>
+   * The property holds the parsed value and is updated when the configuration
+   * changes such that reading the value does not involve any lookup or parsing.
+   * Use this for values read in hot code paths.
+   * <p>
+   * The same property is returned for the same key and default value such that
+   * it does not need to be held by the caller.
+   *
+   * <pre>{@code
+   *
+   *   IntProperty maxRetries = configuration.intProperty("app.maxRetries", 3);
+   *   ...
+   *   for (int i = 0; i < maxRetries.get(); i++) {
+   *     ...
+   *   }
+   *
+   * }</pre>
+   *
+   * @param key          The configuration key
+   * @param defaultValue The value used when the property is not defined
+   * @return The live property
+   */
+  default IntProperty intProperty(String key, int defaultValue) {
+    return new IntProperty() {
+      @Override
+      public String key() {
+        return key;
+      }
+
+      @Override
+      public int get() {
+        return getInt(key, defaultValue);
+      }
+    };
+  }
+
+  /**
+   * Return a live long property for the given key.
+   *
+   * @param key          The configuration key
+   * @param defaultValue The value used when the property is not defined
+   * @return The live property
+   * @see #intProperty(String, int)
+   */
+  default LongProperty longProperty(String key, long defaultValue) {
+    return new LongProperty() {
+      @Override
+      public String key() {
+        return key;
+      }
+
+      @Override
+      public long get() {
+        return getLong(key, defaultValue);
+      }
+    };
+  }
+
+  /**
+   * Return a live boolean property for the given key.
+   * <p>
+   * This provides a fast "feature toggle".
+   *
+   * <pre>{@code
+   *
+   *   BoolProperty cleanup = configuration.boolProperty("feature.cleanup", false);
+   *   ...
+   *   if (cleanup.get()) {
+   *     ...
+   *   }
+   *
+   * }</pre>
+   *
+   * @param key          The configuration key
+   * @param defaultValue The value used when the property is not defined
+   * @return The live property
+   * @see #intProperty(String, int)
+   */
+  default BoolProperty boolProperty(String key, boolean defaultValue) {
+    return new BoolProperty() {
+      @Override
+      public String key() {
+        return key;
+      }
+
+      @Override
+      public boolean get() {
+        return getBool(key, defaultValue);
+      }
+    };
+  }
+
+  /**
+   * Return a live Duration property for the given key.
+   *
+   * @param key          The configuration key
+   * @param defaultValue The value used when the property is not defined
+   * @return The live property
+   * @see #intProperty(String, int)
+   */
+  default DurationProperty durationProperty(String key, Duration defaultValue) {
+    return new DurationProperty() {
+      @Override
+      public String key() {
+        return key;
+      }
+
+      @Override
+      public Duration get() {
+        return getNullable(key) == null ? defaultValue : getDuration(key);
+      }
+    };
+  }
+
   /**
    * Return a List of values configured.
    *
@@ -400,6 +557,9 @@ public interface Configuration {
    * Clear the value for the given key. Note that {@link #eventBuilder(String)} should be
    * used when setting multiple configuration values.
    * <p>
+   * When the value was set via {@link #setProperty(String, String)} this falls back to the
+   * value from the configuration sources (if any) rather than removing the key.
+   * <p>
    * This will fire configuration callback listeners that are registered.
    */
   void clearProperty(String key);
@@ -439,12 +599,52 @@ public interface Configuration {
    *  }, "myFirstInterestingKey", "myOtherInterestingKey");
    *
    *  }</pre>
+   * <p>
+   * A key ending with {@code *} matches all the keys starting with that prefix.
+   *
+   * <pre>{@code
+   *
+   *  configuration.onChange((event) -> {
+   *    // invoked for changes to log.level.com.foo, log.level.com.bar etc
+   *    ...
+   *  }, "log.level.*");
+   *
+   *  }</pre>
+   *
+   * @param bulkChangeEventListener The listener that is called when changes have occurred
+   * @param keys                    Optionally specify keys (or prefixes ending with {@code *})
+   *                                when the listener is only interested if changes are made
+   *                                for these specific properties
+   */
+  void onChange(Consumer<ModificationEvent> bulkChangeEventListener, String... keys);
+
+  /**
+   * Register an event listener with a coalescing window.
+   * <p>
+   * Changes that occur within the window (started by the first change) are merged
+   * and delivered as a single event containing all the modified keys once the window
+   * has elapsed. Use {@link Duration#ZERO} to be notified immediately of every change
+   * regardless of the {@code config.events.coalesceMillis} default.
+   *
+   * <pre>{@code
+   *
+   *  configuration.onChange((event) -> {
+   *
+   *    // called at most once per second with all the modified keys
+   *    Set<String> keys = event.modifiedKeys();
+   *
+   *  }, Duration.ofSeconds(1));
+   *
+   *  }</pre>
    *
    * @param bulkChangeEventListener The listener that is called when changes have occurred
+   * @param coalesceWindow          The window over which changes are merged into one event
    * @param keys                    Optionally specify keys when the listener is only interested
    *                                if changes are made for these specific properties
    */
-  void onChange(Consumer<ModificationEvent> bulkChangeEventListener, String... keys);
+  default void onChange(Consumer<ModificationEvent> bulkChangeEventListener, Duration coalesceWindow, String... keys) {
+    onChange(bulkChangeEventListener, keys);
+  }
 
   /**
    * Register a callback for a change to the given configuration key.
@@ -519,6 +719,27 @@ public interface Configuration {
    */
   Set<String> keys();
 
+  /**
+   * Return the property keys under the given path in key order.
+   * <p>
+   * This includes the key equal to the path and keys that start with the path
+   * followed by a dot. For example, with a path of {@code "log.level"} this
+   * returns {@code "log.level.io.avaje"} but not {@code "log.levels"}.
+   * <p>
+   * Unlike {@link #forPath(String)} the returned keys are the full keys.
+   *
+   * @param pathPrefix The path the keys are under
+   */
+  default Set<String> keys(String pathPrefix) {
+    final Set<String> keys = new TreeSet<>();
+    for (String key : keys()) {
+      if (key.startsWith(pathPrefix) && (key.length() == pathPrefix.length() || key.charAt(pathPrefix.length()) == '.')) {
+        keys.add(key);
+      }
+    }
+    return keys;
+  }
+
   /**
    * Return the number of configuration properties.
    */
@@ -526,13 +747,39 @@ public interface Configuration {
 
   /**
    * Schedule a task to run periodically with a given delay and period.
+   * <p>
+   * The executions run on pooled worker threads (virtual when available) such that a slow task
+   * does not delay other scheduled tasks. When the previous execution of the task is still
+   * running the execution is skipped and reported as an overrun (see {@link #scheduleOverruns()}).
+   * Jitter can be applied to the delay and period via {@code config.schedule.jitter}
+   * (e.g. {@code 0.1} for +/- 10%).
    *
    * @param delay  delay in milliseconds before task is to be executed.
    * @param period time in milliseconds between successive task executions.
    * @param task   task to be scheduled.
+   * @throws IllegalArgumentException if delay is negative or period is not positive
    */
   void schedule(long delay, long period, Runnable task);
 
+  /**
+   * Return the total number of executions of scheduled tasks that were skipped because
+   * the previous execution of the task was still running.
+   */
+  default long scheduleOverruns() {
+    return 0;
+  }
+
+  /**
+   * Close the configuration stopping the scheduled tasks (including file watching) and
+   * background event notification.
+   * <p>
+   * This has no effect when called on a configuration returned by {@link #forPath(String)}
+   * or {@link #snapshot()}.
+   */
+  default void close() {
+    // nothing to close by default
+  }
+
   /**
    * Return a copy of the properties with 'eval' run on all the values.
    */
@@ -726,6 +973,78 @@ public interface Configuration {
     <T> Set<T> ofType(String key, Function<String, T> mappingFunction);
   }
 
+  /**
+   * A live int configuration property that is updated when the configuration changes.
+   *
+   * @see Configuration#intProperty(String, int)
+   */
+  interface IntProperty {
+
+    /**
+     * Return the configuration key.
+     */
+    String key();
+
+    /**
+     * Return the current value.
+     */
+    int get();
+  }
+
+  /**
+   * A live long configuration property that is updated when the configuration changes.
+   *
+   * @see Configuration#longProperty(String, long)
+   */
+  interface LongProperty {
+
+    /**
+     * Return the configuration key.
+     */
+    String key();
+
+    /**
+     * Return the current value.
+     */
+    long get();
+  }
+
+  /**
+   * A live boolean configuration property that is updated when the configuration changes.
+   *
+   * @see Configuration#boolProperty(String, boolean)
+   */
+  interface BoolProperty {
+
+    /**
+     * Return the configuration key.
+     */
+    String key();
+
+    /**
+     * Return the current value.
+     */
+    boolean get();
+  }
+
+  /**
+   * A live Duration configuration property that is updated when the configuration changes.
+   *
+   * @see Configuration#durationProperty(String, Duration)
+   */
+  interface DurationProperty {
+
+    /**
+     * Return the configuration key.
+     */
+    String key();
+
+    /**
+     * Return the current value.
+     */
+    Duration get();
+  }
+
   /**
    * Return a Builder for Configuration that is loaded manually (not via the normal resource loading).
    */
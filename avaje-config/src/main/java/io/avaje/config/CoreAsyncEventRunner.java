@@ -0,0 +1,265 @@
+package io.avaje.config;
+
+import static java.lang.System.Logger.Level.ERROR;
+import static java.lang.System.Logger.Level.WARNING;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Runs the event listener notifications in the background with a mailbox per listener.
+ * <p>
+ * Each listener receives the events in publish order (one at a time) while the listeners
+ * are notified in parallel such that a slow listener does not delay the others. Virtual
+ * threads are used when available (Java 21+) and otherwise daemon platform threads.
+ * <p>
+ * Enabled via {@code config.events.async=true} with the mailbox size, listener timeout
+ * and overflow policy configurable via:
+ * <ul>
+ *   <li>{@code config.events.async.queueSize} - events queued per listener (default 1000)</li>
+ *   <li>{@code config.events.async.timeoutMillis} - listener time reported as an overrun (default 10000)</li>
+ *   <li>{@code config.events.async.overflow} - BLOCK, DROP_OLDEST or DROP_NEWEST (default BLOCK)</li>
+ * </ul>
+ * Dropping events means a listener is not told about the keys those events modified, so
+ * the default blocks the publisher until the listener catches up. A listener that publishes
+ * a change into its own full mailbox (from its notification) has that notification run
+ * inline rather than blocking its own mailbox thread forever.
+ * A notification running longer than the timeout is detected by a periodic check such
+ * that a listener that never returns is still reported.
+ */
+@NullMarked
+final class CoreAsyncEventRunner implements ModificationEventRunner {
+
+  /**
+   * The policy when the mailbox of a listener is full.
+   */
+  enum Overflow {
+    /**
+     * Block the publishing thread until the listener catches up. This also delays the
+     * notification of all the other listeners. When published by the listener itself
+     * (into its own full mailbox) the notification is run inline.
+     */
+    BLOCK,
+    /** Discard the oldest queued event for the listener (the listener misses those changes). */
+    DROP_OLDEST,
+    /** Discard the new event for the listener (the listener misses those changes). */
+    DROP_NEWEST
+  }
+
+  private final ConfigurationLog log;
+  private final ExecutorService executor;
+  private final Map<Object, Mailbox> mailboxes = new ConcurrentHashMap<>();
+  private final int queueSize;
+  private final long timeoutNanos;
+  private final Overflow overflow;
+  private final AtomicLong overruns = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final ThreadLocal<Mailbox> draining = new ThreadLocal<>();
+
+  CoreAsyncEventRunner(ConfigurationLog log, int queueSize, long timeoutMillis, Overflow overflow) {
+    this.log = log;
+    this.queueSize = queueSize;
+    this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    this.overflow = overflow;
+    this.executor = Executors.newCachedThreadPool(CoreScheduler.threadFactory("config-event-"));
+  }
+
+  /**
+   * Return true if async event notification is enabled by the configuration.
+   */
+  static boolean enabled(CoreEntry.CoreMap entries) {
+    return Boolean.parseBoolean(entries.raw("config.events.async"));
+  }
+
+  /**
+   * Create the runner with the settings from the configuration.
+   */
+  static CoreAsyncEventRunner of(ConfigurationLog log, CoreEntry.CoreMap entries) {
+    final String queueSize = entries.raw("config.events.async.queueSize");
+    final String timeout = entries.raw("config.events.async.timeoutMillis");
+    final String overflow = entries.raw("config.events.async.overflow");
+    return new CoreAsyncEventRunner(log,
+      queueSize == null ? 1000 : Integer.parseInt(queueSize.trim()),
+      timeout == null ? 10_000 : Long.parseLong(timeout.trim()),
+      overflow == null ? Overflow.BLOCK : Overflow.valueOf(overflow.trim().toUpperCase()));
+  }
+
+  /**
+   * Dispatching the events to the mailboxes is cheap so this runs using the publishing thread
+   * which keeps the notifications in the order the changes were applied.
+   */
+  @Override
+  public void run(Runnable onChangeNotifyTask) {
+    onChangeNotifyTask.run();
+  }
+
+  /**
+   * Queue the notification of the given listener (ordered with its other notifications).
+   */
+  void deliver(Object listener, Runnable notifyTask) {
+    mailboxes.computeIfAbsent(listener, k -> new Mailbox()).offer(notifyTask);
+  }
+
+  /**
+   * Check periodically (every half of the timeout) for notifications running past the timeout.
+   */
+  void monitor(CoreScheduler scheduler) {
+    final long periodMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeoutNanos) / 2);
+    scheduler.schedule(periodMillis, periodMillis, this::checkOverruns);
+  }
+
+  /**
+   * Report the notifications that are running longer than the timeout.
+   */
+  void checkOverruns() {
+    for (Mailbox mailbox : mailboxes.values()) {
+      mailbox.checkOverrun();
+    }
+  }
+
+  /**
+   * Stop the background threads (notifications not yet started are discarded).
+   */
+  void close() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Return the number of notifications that exceeded the timeout.
+   */
+  long overruns() {
+    return overruns.get();
+  }
+
+  /**
+   * Return the number of notifications discarded due to a full mailbox.
+   */
+  long dropped() {
+    return dropped.get();
+  }
+
+  /**
+   * The ordered notifications of a single listener drained by at most one thread at a time.
+   */
+  private final class Mailbox implements Runnable {
+
+    private final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueSize);
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean overrunReported = new AtomicBoolean();
+    private volatile long startNanos;
+
+    void offer(Runnable task) {
+      if (!queue.offer(task)) {
+        overflow(task);
+      }
+      schedule();
+    }
+
+    private void overflow(Runnable task) {
+      switch (overflow) {
+        case DROP_NEWEST:
+          drop();
+          break;
+        case DROP_OLDEST:
+          while (!queue.offer(task)) {
+            if (queue.poll() != null) {
+              drop();
+            }
+          }
+          break;
+        default:
+          if (draining.get() == this) {
+            // published by the listener into its own mailbox, blocking would never return
+            runInline(task);
+            return;
+          }
+          try {
+            schedule();
+            queue.put(task);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop();
+          }
+      }
+    }
+
+    private void drop() {
+      final long count = dropped.incrementAndGet();
+      log.log(WARNING, "Event listener queue full, discarded notification (total discarded {0})", count);
+    }
+
+    private void schedule() {
+      if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+        try {
+          executor.execute(this);
+        } catch (RejectedExecutionException e) {
+          // closed so the queued notifications are discarded
+          queue.clear();
+          scheduled.set(false);
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      draining.set(this);
+      try {
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+          runTask(task);
+        }
+      } finally {
+        draining.remove();
+        scheduled.set(false);
+      }
+      // a task may have been queued after the last poll
+      schedule();
+    }
+
+    private void runTask(Runnable task) {
+      startNanos = System.nanoTime();
+      overrunReported.set(false);
+      try {
+        task.run();
+      } catch (Throwable e) {
+        log.log(ERROR, "Error during onChange notification", e);
+      } finally {
+        checkOverrun();
+        startNanos = 0;
+      }
+    }
+
+    private void runInline(Runnable task) {
+      try {
+        task.run();
+      } catch (Throwable e) {
+        log.log(ERROR, "Error during onChange notification", e);
+      }
+    }
+
+    /**
+     * Report a notification that has run longer than the timeout (once per notification).
+     */
+    void checkOverrun() {
+      final long start = startNanos;
+      if (start != 0) {
+        final long elapsed = System.nanoTime() - start;
+        if (elapsed > timeoutNanos && overrunReported.compareAndSet(false, true)) {
+          final long count = overruns.incrementAndGet();
+          log.log(WARNING, "Event listener notification running for {0}ms exceeds timeout (total overruns {1})",
+            TimeUnit.NANOSECONDS.toMillis(elapsed), count);
+        }
+      }
+    }
+  }
+}
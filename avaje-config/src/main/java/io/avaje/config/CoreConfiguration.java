@@ -6,13 +6,16 @@ import static java.lang.System.Logger.Level.ERROR;
 import static java.util.Objects.requireNonNull;
 
 import java.lang.System.Logger.Level;
+import java.lang.ref.WeakReference;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.IntConsumer;
@@ -30,35 +33,65 @@ final class CoreConfiguration implements Configuration {
   private final Parsers parsers;
   private final ConfigurationLog log;
   private final ModifyAwareProperties properties;
-  private final ReentrantLock lock = new ReentrantLock();
-  private final List<CoreListener> listeners = new CopyOnWriteArrayList<>();
+  private final Queue<CoreEventBuilder> publishQueue = new ConcurrentLinkedQueue<>();
+  private final Queue<CoreModificationEvent> notifyQueue = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean applying = new AtomicBoolean();
+  private final AtomicBoolean notifying = new AtomicBoolean();
+  private final CoreListeners listeners = new CoreListeners();
   private final Map<String, OnChangeListener> callbacks = new ConcurrentHashMap<>();
+  private final Map<String, List<CoreProperty>> liveProperties = new ConcurrentHashMap<>();
+  private final Map<String, WeakReference<CoreConfiguration>> views = new ConcurrentHashMap<>();
   private final CoreListValue listValue;
   private final CoreSetValue setValue;
   private final ModificationEventRunner eventRunner;
+  private final @Nullable CoreAsyncEventRunner asyncRunner;
   private final List<ConfigurationSource> sources;
   private final List<ConfigurationPlugin> plugins;
 
   private boolean loadedSystemProperties;
   private FileWatch watcher;
-  private Timer timer;
+  private final CoreScheduler scheduler;
+  private final CoreLayers layers;
   private final String pathPrefix;
+  private final CoreConfiguration root;
+  /**
+   * True for a read only snapshot which shares (and does not own) the scheduler and event runner.
+   */
+  private final boolean snapshot;
 
   CoreConfiguration(CoreComponents components, CoreEntry.CoreMap entries) {
+    this(components, entries, new CoreLayers());
+  }
+
+  CoreConfiguration(CoreComponents components, CoreEntry.CoreMap entries, CoreLayers layers) {
+    this.layers = layers;
     this.parsers = components.parsers();
-    this.eventRunner = components.runner();
     this.log = components.log();
+    this.eventRunner = eventRunner(components, entries);
+    this.asyncRunner = eventRunner instanceof CoreAsyncEventRunner ? (CoreAsyncEventRunner) eventRunner : null;
+    this.scheduler = CoreScheduler.of(log, entries);
+    if (asyncRunner != null) {
+      asyncRunner.monitor(scheduler);
+    }
     this.sources = components.sources();
     this.plugins = components.plugins();
     this.properties = new ModifyAwareProperties(entries);
     this.listValue = new CoreListValue(this);
     this.setValue = new CoreSetValue(this);
     this.pathPrefix = "";
+    this.root = this;
+    this.snapshot = false;
   }
 
-  CoreConfiguration(CoreConfiguration parent, CoreEntry.CoreMap entries, String prefix) {
+  /**
+   * Create a read only snapshot with the given (read only) entries.
+   */
+  private CoreConfiguration(CoreConfiguration parent, CoreEntry.CoreMap entries, String prefix) {
     this.parsers = parent.parsers;
     this.eventRunner = parent.eventRunner;
+    this.asyncRunner = parent.asyncRunner;
+    this.scheduler = parent.scheduler;
+    this.layers = new CoreLayers();
     this.log = parent.log;
     this.sources = parent.sources;
     this.plugins = parent.plugins;
@@ -66,6 +99,40 @@ final class CoreConfiguration implements Configuration {
     this.listValue = new CoreListValue(this);
     this.setValue = new CoreSetValue(this);
     this.pathPrefix = prefix;
+    this.root = this;
+    this.snapshot = true;
+  }
+
+  /**
+   * Create a live view of the root configuration for the given path.
+   */
+  private CoreConfiguration(CoreConfiguration root, String path) {
+    this.parsers = root.parsers;
+    this.eventRunner = root.eventRunner;
+    this.asyncRunner = root.asyncRunner;
+    this.scheduler = root.scheduler;
+    this.layers = root.layers;
+    this.log = root.log;
+    this.sources = root.sources;
+    this.plugins = root.plugins;
+    this.properties = root.properties.forPath(path);
+    this.listValue = new CoreListValue(this);
+    this.setValue = new CoreSetValue(this);
+    this.pathPrefix = path + '.';
+    this.root = root;
+    this.snapshot = root.snapshot;
+  }
+
+  /**
+   * Return the async event runner when enabled via {@code config.events.async} and otherwise
+   * the runner from the components.
+   */
+  private ModificationEventRunner eventRunner(CoreComponents components, CoreEntry.CoreMap entries) {
+    final ModificationEventRunner runner = components.runner();
+    if (runner instanceof ForegroundEventRunner && CoreAsyncEventRunner.enabled(entries)) {
+      return CoreAsyncEventRunner.of(log, entries);
+    }
+    return runner;
   }
 
   /**
@@ -127,6 +194,25 @@ final class CoreConfiguration implements Configuration {
     }
   }
 
+  /**
+   * Return the default coalescing window for event listeners (0 for no coalescing).
+   */
+  private long coalesceMillis() {
+    final String millis = properties.entries.raw("config.events.coalesceMillis");
+    return millis == null ? 0 : Long.parseLong(millis.trim());
+  }
+
+  CoreMissCache missCache() {
+    return properties.missCache;
+  }
+
+  /**
+   * Return the current raw values of the given layer (source).
+   */
+  Map<String, String> layerValues(String layerName) {
+    return layers.values(layerName);
+  }
+
   void setWatcher(FileWatch watcher) {
     this.watcher = watcher;
   }
@@ -138,11 +224,46 @@ final class CoreConfiguration implements Configuration {
 
   @Override
   public void schedule(long delayMillis, long periodMillis, Runnable runnable) {
-    synchronized (this) {
-      if (timer == null) {
-        timer = new Timer("ConfigTimer", true);
-      }
-      timer.schedule(new Task(log, runnable), delayMillis, periodMillis);
+    scheduler.schedule(delayMillis, periodMillis, runnable);
+  }
+
+  @Override
+  public long scheduleOverruns() {
+    return scheduler.overruns();
+  }
+
+  /**
+   * Run the task once after the given delay.
+   *
+   * @return False when the configuration is closed and the task will not be run
+   */
+  boolean scheduleOnce(long delayMillis, Runnable runnable) {
+    return scheduler.scheduleOnce(delayMillis, runnable);
+  }
+
+  /**
+   * Run the notification of the listener, via its mailbox when notifying asynchronously.
+   */
+  void deliver(CoreListener listener, Runnable notifyTask) {
+    if (asyncRunner == null) {
+      notifyTask.run();
+    } else {
+      asyncRunner.deliver(listener, notifyTask);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (root != this || snapshot) {
+      // views and snapshots do not own the scheduler and event runner
+      return;
+    }
+    scheduler.close();
+    if (watcher != null) {
+      watcher.close();
+    }
+    if (asyncRunner != null) {
+      asyncRunner.close();
     }
   }
 
@@ -155,6 +276,13 @@ final class CoreConfiguration implements Configuration {
     return properties.eval(value);
   }
 
+  /**
+   * Return the key including the path when this is a view.
+   */
+  String fullKey(String key) {
+    return properties.key(key);
+  }
+
   @Override
   public Properties eval(Properties source) {
     final ExpressionEval exprEval = InitialLoader.evalFor(source);
@@ -201,22 +329,40 @@ final class CoreConfiguration implements Configuration {
 
   @Override
   public Configuration forPath(String pathPrefix) {
-    final var dotPrefix = pathPrefix + '.';
-    final var dotLength = dotPrefix.length();
-    final var newEntryMap = CoreEntry.newMap();
-    properties.entries.forEach((key, entry) -> {
-      if (key.startsWith(dotPrefix)) {
-        newEntryMap.put(key.substring(dotLength), entry);
-      } else if (key.equals(pathPrefix)) {
-        newEntryMap.put("", entry);
-      }
-    });
-    return new CoreConfiguration(this, newEntryMap, dotPrefix);
+    requireNonNull(pathPrefix, "pathPrefix is required");
+    if (root != this) {
+      return root.forPath(properties.key(pathPrefix));
+    }
+    final WeakReference<CoreConfiguration> ref = views.get(pathPrefix);
+    CoreConfiguration view = ref == null ? null : ref.get();
+    if (view == null) {
+      // views no longer in use are garbage collected, remove their references
+      views.values().removeIf(viewRef -> viewRef.get() == null);
+      view = new CoreConfiguration(this, pathPrefix);
+      views.put(pathPrefix, new WeakReference<>(view));
+    }
+    return view;
+  }
+
+  @Override
+  public Configuration snapshot() {
+    return new CoreConfiguration(this, properties.snapshot(), pathPrefix);
+  }
+
+  @Override
+  public long version() {
+    return properties.entries.version();
   }
 
   @Override
   public Set<String> keys() {
-    return properties.entries.keys();
+    return properties.keys();
+  }
+
+  @Override
+  public Set<String> keys(String pathPrefix) {
+    requireNonNull(pathPrefix, "pathPrefix is required");
+    return properties.keys(pathPrefix);
   }
 
   @Override
@@ -235,11 +381,15 @@ final class CoreConfiguration implements Configuration {
   }
 
   private String required(String key) {
-    String value = value(key);
-    if (value == null) {
+    return requiredEntry(key).value();
+  }
+
+  private CoreEntry requiredEntry(String key) {
+    final CoreEntry entry = properties.entry(key);
+    if (entry.isNull()) {
       throw new IllegalStateException("Missing required configuration parameter [" + pathPrefix + key + "]");
     }
-    return value;
+    return entry;
   }
 
   @Override
@@ -271,6 +421,12 @@ final class CoreConfiguration implements Configuration {
     return properties.entry(key, defaultValue).value();
   }
 
+  private CoreEntry entry(String key, String defaultValue) {
+    requireNonNull(key, "key is required");
+    requireNonNull(defaultValue, "defaultValue is required, use getOptional() instead");
+    return properties.entry(key, defaultValue);
+  }
+
   @Override
   public Optional<String> getOptional(String key) {
     return Optional.ofNullable(value(key));
@@ -283,7 +439,7 @@ final class CoreConfiguration implements Configuration {
 
   @Override
   public boolean getBool(String key) {
-    return Boolean.parseBoolean(required(key));
+    return requiredEntry(key).boolValue();
   }
 
   @Override
@@ -293,133 +449,325 @@ final class CoreConfiguration implements Configuration {
 
   @Override
   public int getInt(String key) {
-    return Integer.parseInt(required(key));
+    return requiredEntry(key).intValue();
   }
 
   @Override
   public int getInt(String key, int defaultValue) {
-    final String val = value(key);
-    return (val == null) ? defaultValue : Integer.parseInt(val);
+    final CoreEntry entry = properties.entry(key);
+    return entry.isNull() ? defaultValue : entry.intValue();
   }
 
   @Override
   public long getLong(String key) {
-    return Long.parseLong(required(key));
+    return requiredEntry(key).longValue();
   }
 
   @Override
   public long getLong(String key, long defaultValue) {
-    final String val = value(key);
-    return (val == null) ? defaultValue : Long.parseLong(val);
+    final CoreEntry entry = properties.entry(key);
+    return entry.isNull() ? defaultValue : entry.longValue();
   }
 
   @Override
   public BigDecimal getDecimal(String key) {
-    return new BigDecimal(get(key));
+    return requiredEntry(key).decimalValue();
   }
 
   @Override
   public BigDecimal getDecimal(String key, String defaultValue) {
-    return new BigDecimal(get(key, defaultValue));
+    return entry(key, defaultValue).decimalValue();
   }
 
   @Override
   public URI getURI(String key) {
-    return URI.create(get(key));
+    return requiredEntry(key).uriValue();
   }
 
   @Override
   public URI getURI(String key, String defaultValue) {
-    return URI.create(get(key, defaultValue));
+    return entry(key, defaultValue).uriValue();
   }
 
   @Override
   public Duration getDuration(String key) {
-    return Duration.parse(get(key));
+    return requiredEntry(key).durationValue();
   }
 
   @Override
   public Duration getDuration(String key, String defaultValue) {
-    return Duration.parse(get(key, defaultValue));
+    return entry(key, defaultValue).durationValue();
   }
 
   @Override
   public <T extends Enum<T>> T getEnum(Class<T> cls, String key) {
     requireNonNull(cls, "Enum class is required");
-    return Enum.valueOf(cls, get(key));
+    return requiredEntry(key).enumValue(cls);
   }
 
   @Override
   public <T extends Enum<T>> T getEnum(Class<T> cls, String key, T defaultValue) {
     requireNonNull(cls, "Enum class is required");
-    return Enum.valueOf(cls, get(key, defaultValue.name()));
+    return entry(key, defaultValue.name()).enumValue(cls);
   }
 
   @Override
   public <T> T getAs(String key, Function<String, T> mappingFunction) {
-    requireNonNull("key is required");
-    requireNonNull("mappingFunction is required");
-    final var entry = required(key);
+    requireNonNull(key, "key is required");
+    requireNonNull(mappingFunction, "mappingFunction is required");
+    final var entry = requiredEntry(key);
     try {
-      return mappingFunction.apply(entry);
+      // not cached, the mapped value may be mutable and is not shared across callers
+      return mappingFunction.apply(entry.value());
     } catch (final Exception e) {
-      throw new IllegalStateException("Failed to convert key: " + key + " sourced from: " + properties.entry(key).source() + " with the provided function", e);
+      throw new IllegalStateException("Failed to convert key: " + key + " sourced from: " + entry.source() + " with the provided function", e);
     }
   }
 
   @Override
   public <T> Optional<T> getAsOptional(String key, Function<String, T> mappingFunction) {
-    requireNonNull("key is required");
-    requireNonNull("mappingFunction is required");
+    requireNonNull(key, "key is required");
+    requireNonNull(mappingFunction, "mappingFunction is required");
+    final var entry = properties.entry(key);
+    if (entry.isNull()) {
+      return Optional.empty();
+    }
     try {
-      return Optional.ofNullable(value(key)).map(mappingFunction);
+      return Optional.ofNullable(mappingFunction.apply(entry.value()));
     } catch (final Exception e) {
-      throw new IllegalStateException("Failed to convert key: " + key + " sourced from: " + properties.entry(key).source() + " with the provided function", e);
+      throw new IllegalStateException("Failed to convert key: " + key + " sourced from: " + entry.source() + " with the provided function", e);
     }
   }
 
+  @Override
+  public IntProperty intProperty(String key, int defaultValue) {
+    return register(new CoreProperty.IntProp(fullKey(requireNonNull(key)), defaultValue));
+  }
+
+  @Override
+  public LongProperty longProperty(String key, long defaultValue) {
+    return register(new CoreProperty.LongProp(fullKey(requireNonNull(key)), defaultValue));
+  }
+
+  @Override
+  public BoolProperty boolProperty(String key, boolean defaultValue) {
+    return register(new CoreProperty.BoolProp(fullKey(requireNonNull(key)), defaultValue));
+  }
+
+  @Override
+  public DurationProperty durationProperty(String key, Duration defaultValue) {
+    return register(new CoreProperty.DurationProp(fullKey(requireNonNull(key)), requireNonNull(defaultValue)));
+  }
+
+  /**
+   * Return the live property already registered with the same key, type and default value,
+   * otherwise register the given property and set its initial value.
+   * <p>
+   * The property is registered prior to reading its initial value such that the publish
+   * pipeline updates it for any concurrent change. The initial value is read again when the
+   * version changed during the read, as the pipeline updates the registered properties after
+   * publishing the new version, such that a stale read does not overwrite the pipeline update.
+   */
+  @SuppressWarnings("unchecked")
+  private <P extends CoreProperty> P register(P property) {
+    final List<CoreProperty> props = root.liveProperties.computeIfAbsent(property.key(), k -> new CopyOnWriteArrayList<>());
+    synchronized (props) {
+      for (CoreProperty existing : props) {
+        if (existing.sameAs(property)) {
+          return (P) existing;
+        }
+      }
+      props.add(property);
+      long version;
+      do {
+        version = root.version();
+        property.update(root.value(property.key()), log);
+      } while (version != root.version());
+    }
+    return property;
+  }
+
   @Override
   public ModificationEvent.Builder eventBuilder(String name) {
     requireNonNull(name);
     return new CoreEventBuilder(name, this, properties.entryMap());
   }
 
+  /**
+   * Publish the changes.
+   * <p>
+   * Publishers enqueue their changes and a single publisher at a time applies all
+   * the queued changes as one generation. The publisher returns once its changes
+   * have been applied (visible), or throws the failure applying them, and does not
+   * wait on listener notification that is already in progress by another publisher.
+   */
   void publishEvent(CoreEventBuilder eventBuilder) {
-    if (eventBuilder.hasChanges()) {
-      lock.lock();
+    if (root != this) {
+      root.publishEvent(eventBuilder);
+      return;
+    }
+    if (snapshot) {
+      throw new IllegalStateException("The snapshot configuration is read only");
+    }
+    if (!eventBuilder.hasChanges()) {
+      return;
+    }
+    publishQueue.add(eventBuilder);
+    drainPublishQueue();
+    eventBuilder.await();
+    if (!notifyQueue.isEmpty()) {
+      eventRunner.run(this::notifyQueued);
+    }
+  }
+
+  /**
+   * Apply the queued changes unless another publisher is applying them.
+   * <p>
+   * The applying publisher checks the queue again after releasing such that changes
+   * queued while it was applying are not left without a publisher to apply them.
+   */
+  private void drainPublishQueue() {
+    while (!publishQueue.isEmpty() && applying.compareAndSet(false, true)) {
       try {
-        eventRunner.run(() -> applyChangesAndPublish(eventBuilder));
+        applyQueued();
       } finally {
-        lock.unlock();
+        applying.set(false);
       }
     }
   }
 
-  private void applyChangesAndPublish(CoreEventBuilder eventBuilder) {
-    Set<String> modifiedKeys = properties.applyChanges(eventBuilder);
-    if (!modifiedKeys.isEmpty()) {
-      final var event = new CoreModificationEvent(eventBuilder.name(), modifiedKeys, this);
-      for (CoreListener listener : listeners) {
-        listener.accept(event);
+  /**
+   * Apply all the queued changes as a single generation, queuing the event for notification.
+   * <p>
+   * Each of the changes is completed with either success or the failure such that
+   * the publishers waiting on them return (or throw the failure).
+   */
+  private void applyQueued() {
+    final List<CoreEventBuilder> builders = new ArrayList<>();
+    CoreEventBuilder builder;
+    while ((builder = publishQueue.poll()) != null) {
+      builders.add(builder);
+    }
+    if (builders.isEmpty()) {
+      return;
+    }
+    try {
+      for (CoreEventBuilder eventBuilder : builders) {
+        eventBuilder.resolveLayers(layers);
       }
+      final Set<String> modifiedKeys = properties.applyChanges(builders);
+      updateLiveProperties(modifiedKeys);
+      if (!modifiedKeys.isEmpty()) {
+        notifyQueue.add(new CoreModificationEvent(eventName(builders), modifiedKeys, this));
+      }
+    } catch (RuntimeException | Error e) {
+      for (CoreEventBuilder failed : builders) {
+        failed.failed(e);
+      }
+    } finally {
+      for (CoreEventBuilder applied : builders) {
+        applied.applied();
+      }
+    }
+  }
+
+  private static String eventName(List<CoreEventBuilder> builders) {
+    if (builders.size() == 1) {
+      return builders.get(0).name();
     }
+    final Set<String> names = new LinkedHashSet<>();
+    for (CoreEventBuilder builder : builders) {
+      names.add(builder.name());
+    }
+    return String.join(",", names);
+  }
+
+  /**
+   * Notify the listeners of the queued events in order by one thread at a time.
+   */
+  private void notifyQueued() {
+    while (!notifyQueue.isEmpty() && notifying.compareAndSet(false, true)) {
+      try {
+        CoreModificationEvent event;
+        while ((event = notifyQueue.poll()) != null) {
+          notifyListeners(event);
+        }
+      } finally {
+        notifying.set(false);
+      }
+    }
+  }
+
+  private void notifyListeners(CoreModificationEvent event) {
+    listeners.accept(event, asyncRunner);
     // legacy per-key listeners
-    for (String modifiedKey : modifiedKeys) {
+    for (String modifiedKey : event.modifiedKeys()) {
       OnChangeListener listener = callbacks.get(modifiedKey);
       if (listener != null) {
         final String value = properties.valueOrNull(modifiedKey);
-        listener.fireOnChange(value);
+        if (asyncRunner == null) {
+          listener.fireOnChange(value);
+        } else {
+          asyncRunner.deliver(listener, () -> listener.fireOnChange(value));
+        }
+      }
+    }
+  }
+
+  private void updateLiveProperties(Set<String> modifiedKeys) {
+    if (liveProperties.isEmpty()) {
+      return;
+    }
+    for (String modifiedKey : modifiedKeys) {
+      final List<CoreProperty> props = liveProperties.get(modifiedKey);
+      if (props != null) {
+        final String value = properties.valueOrNull(modifiedKey);
+        for (CoreProperty prop : props) {
+          prop.update(value, log);
+        }
       }
     }
   }
 
   @Override
   public void onChange(Consumer<ModificationEvent> eventListener, String... keys) {
-    listeners.add(new CoreListener(log, eventListener, keys));
+    registerListener(eventListener, root.coalesceMillis(), keys);
+  }
+
+  @Override
+  public void onChange(Consumer<ModificationEvent> eventListener, Duration coalesceWindow, String... keys) {
+    registerListener(eventListener, coalesceWindow.toMillis(), keys);
+  }
+
+  private void registerListener(Consumer<ModificationEvent> eventListener, long windowMillis, String[] keys) {
+    final var listener = new CoreListener(log, eventListener, keys, windowMillis, root);
+    if (root == this) {
+      listeners.add(listener);
+    } else {
+      // notified of changes under the path with the keys relative to the path
+      final String[] rootKeys = keys.length == 0 ? new String[]{properties.path + '*'} : fullKeys(keys);
+      root.listeners.add(new CoreListener(log, event -> {
+        final Set<String> relativeKeys = properties.relativeKeys(event.modifiedKeys());
+        if (!relativeKeys.isEmpty()) {
+          listener.accept(new CoreModificationEvent(event.name(), relativeKeys, this));
+        }
+      }, rootKeys));
+    }
+  }
+
+  private String[] fullKeys(String[] keys) {
+    final String[] fullKeys = new String[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      fullKeys[i] = fullKey(keys[i]);
+    }
+    return fullKeys;
   }
 
   private OnChangeListener onChange(String key) {
     requireNonNull(key, "key is required");
+    if (root != this) {
+      return root.onChange(properties.key(key));
+    }
     return callbacks.computeIfAbsent(key, s -> new OnChangeListener(log));
   }
 
@@ -494,14 +842,116 @@ final class CoreConfiguration implements Configuration {
 
     private final CoreEntry.CoreMap entries;
     private final Configuration.ExpressionEval eval;
+    private final CoreMissCache missCache;
+    /** The path of a view, empty otherwise. */
+    private final String path;
+    /** The path followed by a dot for a view, empty otherwise. */
+    private final String prefix;
 
     ModifyAwareProperties(CoreEntry.CoreMap entries) {
       this.entries = entries;
       this.eval = new CoreExpressionEval(entries);
+      this.missCache = new CoreMissCache(missCacheSize(entries));
+      this.path = "";
+      this.prefix = "";
+    }
+
+    private ModifyAwareProperties(ModifyAwareProperties root, String path) {
+      this.entries = root.entries;
+      this.eval = root.eval;
+      this.missCache = root.missCache;
+      this.path = path;
+      this.prefix = path + '.';
+    }
+
+    /**
+     * Return a view of these properties for the given path (no copying).
+     */
+    ModifyAwareProperties forPath(String path) {
+      return new ModifyAwareProperties(this, path);
+    }
+
+    /**
+     * Return the full key for the given key relative to the view path.
+     */
+    String key(String key) {
+      if (prefix.isEmpty()) {
+        return key;
+      }
+      return key.isEmpty() ? path : prefix.concat(key);
+    }
+
+    /**
+     * Visit the entries with keys relative to the view path.
+     */
+    private void forEach(CoreEntry.CoreMap source, BiConsumer<String, CoreEntry> consumer) {
+      if (prefix.isEmpty()) {
+        source.forEach(consumer);
+        return;
+      }
+      final CoreEntry entry = source.get(path);
+      if (entry != null) {
+        consumer.accept("", entry);
+      }
+      final int length = prefix.length();
+      source.forEachWithPrefix(prefix, (key, prefixedEntry) -> consumer.accept(key.substring(length), prefixedEntry));
+    }
+
+    /**
+     * Return the given full keys that are in the view path, relative to the view path.
+     */
+    Set<String> relativeKeys(Set<String> fullKeys) {
+      final Set<String> keys = new LinkedHashSet<>();
+      final int length = prefix.length();
+      for (String key : fullKeys) {
+        if (key.startsWith(prefix)) {
+          keys.add(key.substring(length));
+        } else if (key.equals(path)) {
+          keys.add("");
+        }
+      }
+      return keys;
+    }
+
+    Set<String> keys() {
+      if (prefix.isEmpty()) {
+        return entries.keys();
+      }
+      final Set<String> keys = new LinkedHashSet<>();
+      forEach(entries, (key, entry) -> keys.add(key));
+      return keys;
+    }
+
+    Set<String> keys(String pathPrefix) {
+      final Set<String> keys = entries.keys(key(pathPrefix));
+      return prefix.isEmpty() ? keys : relativeKeys(keys);
+    }
+
+    /**
+     * Return a read only snapshot of the entries, detached with relative keys for a view.
+     */
+    CoreEntry.CoreMap snapshot() {
+      final CoreEntry.CoreMap snapshot = entries.snapshot();
+      if (prefix.isEmpty()) {
+        return snapshot;
+      }
+      final CoreEntry.CoreMap relative = CoreEntry.newMap();
+      forEach(snapshot, relative::put);
+      return relative.snapshot();
+    }
+
+    private static int missCacheSize(CoreEntry.CoreMap entries) {
+      final String size = entries.raw("config.missCache.maxSize");
+      return size == null ? 1000 : Integer.parseInt(size);
     }
 
     int size() {
-      return entries.size();
+      if (prefix.isEmpty()) {
+        return entries.size();
+      }
+      final int[] count = {0};
+      forEach(entries, (key, entry) -> count[0]++);
+      return count[0];
     }
 
     String eval(String value) {
@@ -510,7 +960,7 @@ final class CoreConfiguration implements Configuration {
 
     @Nullable
     String valueOrNull(String key) {
-      CoreEntry entry = entries.get(key);
+      CoreEntry entry = entries.get(key(key));
       return entry == null ? null : entry.value();
     }
 
@@ -524,11 +974,11 @@ final class CoreConfiguration implements Configuration {
     }
 
     CoreEntry entry(String key) {
-      return _entry(key, null);
+      return _entry(key(key), null);
     }
 
     CoreEntry entry(String key, String defaultValue) {
-      return _entry(key, defaultValue);
+      return _entry(key(key), defaultValue);
     }
 
     /**
@@ -536,45 +986,51 @@ final class CoreConfiguration implements Configuration {
      * This also excludes entries that represent a null value.
      */
     Optional<Entry> optionalEntry(String key) {
-      return Optional.ofNullable(entries.get(key))
+      return Optional.ofNullable(entries.get(key(key)))
         .filter(entry -> !entry.isNull())
         .map(entry -> entry);
     }
 
     /**
      * Get property with caching taking into account defaultValue and "null".
+     * <p>
+     * Only values backed by a System property or environment variable are cached in the
+     * entries. Misses and default values are cached in the bounded miss cache such that
+     * dynamically built keys do not grow the configuration.
      */
     private CoreEntry _entry(String key, @Nullable String defaultValue) {
-      CoreEntry value = entries.get(key);
-      if (value == null) {
+      final CoreEntry value = entries.get(key);
+      if (value != null && !value.isNull()) {
+        return value;
+      }
+      final CoreEntry cached = missCache.get(key);
+      if (cached != null) {
+        return cached.isNull() && defaultValue != null ? missCache.put(key, defaultEntry(defaultValue)) : cached;
+      }
+      final String systemValue = value == null ? systemValue(key) : null;
+      if (systemValue != null) {
         // defining property at runtime with System property/ENV backing
-        value = defaultEntry(defaultValue, systemValue(key));
-        entries.put(key, value);
-      } else if (value.isNull() && defaultValue != null) {
-        value = CoreEntry.of(defaultValue, USER_PROVIDED_DEFAULT);
-        entries.put(key, value);
+        final CoreEntry systemEntry = CoreEntry.of(systemValue, SYSTEM_PROPS);
+        final CoreEntry existing = entries.putIfAbsent(key, systemEntry);
+        if (existing == null || !existing.isNull()) {
+          return existing == null ? systemEntry : existing;
+        }
       }
-      return value;
+      return missCache.put(key, defaultEntry(defaultValue));
     }
 
-    private static CoreEntry defaultEntry(@Nullable String defaultValue, @Nullable String systemValue) {
-      if (systemValue != null) {
-        return CoreEntry.of(systemValue, SYSTEM_PROPS);
-      } else if (defaultValue != null) {
-        return CoreEntry.of(defaultValue, USER_PROVIDED_DEFAULT);
-      } else {
-        return CoreEntry.NULL_ENTRY;
-      }
+    private static CoreEntry defaultEntry(@Nullable String defaultValue) {
+      return defaultValue == null ? CoreEntry.NULL_ENTRY : CoreEntry.of(defaultValue, USER_PROVIDED_DEFAULT);
     }
 
     @Nullable
     private static String systemValue(String key) {
-      final String val = System.getProperty(key, System.getenv(key));
-      return val != null ? val : System.getenv(toEnvKey(key));
+      final String val = System.getProperty(key);
+      return val != null ? val : CoreEnvIndex.get().lookup(key);
     }
 
     void loadIntoSystemProperties(Set<String> excludedSet) {
-      entries.forEach((key, entry) -> {
+      forEach(entries, (key, entry) -> {
         if (!excludedSet.contains(key) && !entry.isNull()) {
           System.setProperty(key, entry.value());
         }
@@ -583,7 +1039,7 @@ final class CoreConfiguration implements Configuration {
 
     Properties asProperties() {
       Properties props = new Properties();
-      entries.forEach((key, entry) -> {
+      forEach(entries, (key, entry) -> {
         if (!entry.isNull()) {
           props.setProperty(key, entry.value());
         }
@@ -595,28 +1051,14 @@ final class CoreConfiguration implements Configuration {
       return entries;
     }
 
-    Set<String> applyChanges(CoreEventBuilder eventBuilder) {
-      return entries.applyChanges(eventBuilder);
-    }
-  }
-
-  private static class Task extends TimerTask {
-
-    private final ConfigurationLog log;
-    private final Runnable runnable;
-
-    private Task(ConfigurationLog log, Runnable runnable) {
-      this.log = log;
-      this.runnable = runnable;
-    }
-
-    @Override
-    public void run() {
-      try {
-        runnable.run();
-      } catch (Exception e) {
-        log.log(Level.ERROR, "Error executing timer task", e);
+    Set<String> applyChanges(List<CoreEventBuilder> eventBuilders) {
+      final Set<String> modifiedKeys = entries.applyChanges(eventBuilders);
+      missCache.invalidate(modifiedKeys);
+      for (CoreEventBuilder eventBuilder : eventBuilders) {
+        // explicitly set or cleared, including a cleared default value
+        missCache.invalidate(eventBuilder.runtimeKeys());
       }
+      return modifiedKeys;
     }
   }
 
@@ -5,6 +5,7 @@ import static java.lang.System.Logger.Level.INFO;
 import static java.util.Objects.requireNonNull;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -97,6 +98,9 @@ final class CoreConfigurationBuilder implements Configuration.Builder {
       return this;
     }
     final var configParser = parser(file.getName());
+    if (configParser instanceof BinaryConfigParser) {
+      return loadBinary(file, configParser);
+    }
     try {
       try (var reader = new FileReader(file)) {
         var source = "file:" + file.getName();
@@ -109,6 +113,20 @@ final class CoreConfigurationBuilder implements Configuration.Builder {
     }
   }
 
+  /**
+   * Load the binary format via a FileInputStream such that it is memory mapped.
+   */
+  private Configuration.Builder loadBinary(File file, ConfigParser configParser) {
+    try (var inputStream = new FileInputStream(file)) {
+      var source = "file:" + file.getName();
+      configParser.load(inputStream).forEach((k, v) -> sourceMap.put(k, v, source));
+      log.log(DEBUG, "loaded {0}", source);
+      return this;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   private ConfigParser parser(String name) {
     int pos = name.lastIndexOf('.');
     if (pos == -1) {
@@ -135,12 +153,14 @@ final class CoreConfigurationBuilder implements Configuration.Builder {
       log.preInitialisation();
       initialLoader = new InitialLoader(components, resourceLoader);
     }
-    return new CoreConfiguration(components, initEntries()).postLoad(initialLoader);
+    final var layers = initialLoader == null ? new CoreLayers() : initialLoader.layers();
+    return new CoreConfiguration(components, initEntries(layers), layers).postLoad(initialLoader);
   }
 
-  private CoreEntry.CoreMap initEntries() {
+  private CoreEntry.CoreMap initEntries(CoreLayers layers) {
     final var entries = initEntryMap();
     entries.addAll(sourceMap);
+    sourceMap.forEach((key, entry) -> layers.put(CoreLayers.INITIAL, key, entry.value()));
     return CoreExpressionEval.evalFor(entries);
   }
 
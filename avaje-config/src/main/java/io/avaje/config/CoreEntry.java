@@ -2,8 +2,12 @@ package io.avaje.config;
 
 import static java.util.Objects.requireNonNull;
 
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.function.BiConsumer;
 
 import org.jspecify.annotations.NullMarked;
@@ -11,6 +15,11 @@ import org.jspecify.annotations.Nullable;
 
 /**
  * Configuration entry.
+ * <p>
+ * Entries are immutable with respect to their value and lazily cache the typed
+ * (int, long, Duration etc) conversions of that value. Changes to configuration
+ * replace the entry (rather than mutate it) such that the cached typed values
+ * are dropped along with the replaced entry.
  */
 @NullMarked
 final class CoreEntry implements Configuration.Entry {
@@ -23,6 +32,24 @@ final class CoreEntry implements Configuration.Entry {
   private final String value;
   private final boolean boolValue;
   private final String source;
+  /**
+   * The unevaluated value when the value was evaluated from an expression like {@code ${db.host}}.
+   */
+  private final @Nullable String expression;
+
+  /**
+   * Lazily computed typed values. These use racy single-check initialisation as
+   * the computed values are equivalent and safely published (immutable or held
+   * via the final fields of Typed). Only immutable built-in types are cached, each
+   * in its own slot such that reading the same entry as different types does not
+   * evict the cached values.
+   */
+  private @Nullable Integer intValue;
+  private @Nullable Long longValue;
+  private @Nullable BigDecimal decimalValue;
+  private @Nullable URI uriValue;
+  private @Nullable Duration durationValue;
+  private @Nullable Typed enumValue;
 
   /**
    * Return a new empty entryMap for entries.
@@ -51,7 +78,14 @@ final class CoreEntry implements Configuration.Entry {
    * Return an entry for the given value.
    */
   static CoreEntry of(@Nullable String val, String source) {
-    return val == null ? NULL_ENTRY : new CoreEntry(val, source);
+    return val == null ? NULL_ENTRY : new CoreEntry(val, source, null);
+  }
+
+  /**
+   * Return an entry for the given value evaluated from the given expression.
+   */
+  static CoreEntry of(@Nullable String val, String source, @Nullable String expression) {
+    return val == null ? NULL_ENTRY : new CoreEntry(val, source, expression);
   }
 
   /**
@@ -61,13 +95,15 @@ final class CoreEntry implements Configuration.Entry {
     this.value = null;
     this.boolValue = false;
     this.source = null;
+    this.expression = null;
   }
 
-  private CoreEntry(String value, String source) {
+  private CoreEntry(String value, String source, @Nullable String expression) {
     requireNonNull(value);
     this.value = value;
     this.boolValue = Boolean.parseBoolean(value);
     this.source = source;
+    this.expression = expression;
   }
 
   @Override
@@ -79,6 +115,14 @@ final class CoreEntry implements Configuration.Entry {
     return value != null && value.contains("${");
   }
 
+  /**
+   * Return the expression the value was evaluated from (or null).
+   */
+  @Nullable
+  String expression() {
+    return expression;
+  }
+
   @Override
   public String value() {
     return value;
@@ -88,6 +132,79 @@ final class CoreEntry implements Configuration.Entry {
     return boolValue;
   }
 
+  /**
+   * Return the value as an int (parsed once and cached).
+   */
+  int intValue() {
+    Integer val = intValue;
+    if (val == null) {
+      val = Integer.parseInt(value);
+      intValue = val;
+    }
+    return val;
+  }
+
+  /**
+   * Return the value as a long (parsed once and cached).
+   */
+  long longValue() {
+    Long val = longValue;
+    if (val == null) {
+      val = Long.parseLong(value);
+      longValue = val;
+    }
+    return val;
+  }
+
+  /**
+   * Return the value as a BigDecimal (parsed once and cached).
+   */
+  BigDecimal decimalValue() {
+    BigDecimal val = decimalValue;
+    if (val == null) {
+      val = new BigDecimal(value);
+      decimalValue = val;
+    }
+    return val;
+  }
+
+  /**
+   * Return the value as a URI (parsed once and cached).
+   */
+  URI uriValue() {
+    URI val = uriValue;
+    if (val == null) {
+      val = URI.create(value);
+      uriValue = val;
+    }
+    return val;
+  }
+
+  /**
+   * Return the value as a Duration (parsed once and cached).
+   */
+  Duration durationValue() {
+    Duration val = durationValue;
+    if (val == null) {
+      val = Duration.parse(value);
+      durationValue = val;
+    }
+    return val;
+  }
+
+  /**
+   * Return the value as an enum of the given type (cached for the last enum type).
+   */
+  @SuppressWarnings("unchecked")
+  <T extends Enum<T>> T enumValue(Class<T> type) {
+    Typed current = enumValue;
+    if (current == null || current.type != type) {
+      current = new Typed(type, Enum.valueOf(type, value));
+      enumValue = current;
+    }
+    return (T) current.value;
+  }
+
   @Override
   public String source() {
     return source;
@@ -97,109 +214,438 @@ final class CoreEntry implements Configuration.Entry {
     return value == null;
   }
 
+  /**
+   * An enum value with the enum type it was converted to.
+   */
+  private static final class Typed {
+
+    private final Class<?> type;
+    private final Object value;
+
+    Typed(Class<?> type, Object value) {
+      this.type = type;
+      this.value = value;
+    }
+  }
+
   /**
    * A entryMap like container of CoreEntry entries.
+   * <p>
+   * The entries are held by an immutable versioned generation (a persistent hash trie).
+   * Published changes produce the next generation, sharing the unchanged structure with
+   * the current one, which is then swapped in atomically such that readers never observe
+   * a partially applied set of changes and a change does not copy all the entries.
+   * <p>
+   * Runtime resolved entries (like default values) are cached separately from the
+   * generations such that they are not shared with snapshots.
+   * <p>
+   * A sorted index of the keys is maintained incrementally such that prefix
+   * queries (like forPath) cost in proportion to the matching keys rather than
+   * the total number of keys. The index can briefly contain more keys than the
+   * current generation so prefix queries filter by the current generation.
+   * <p>
+   * The keys referenced by expressions are tracked such that when a referenced key
+   * is modified the dependent entries are re-evaluated as part of the same change.
    */
   static class CoreMap {
 
-    private final Map<String, CoreEntry> entryMap = new ConcurrentHashMap<>();
+    /**
+     * Limit on re-evaluating an entry for a change (guards against reference cycles).
+     */
+    private static final int MAX_EVAL = 16;
+
+    private volatile Generation generation;
+    /**
+     * Runtime resolved entries (default values, system properties) for keys not in the generation.
+     */
+    private final Map<String, CoreEntry> resolved = new ConcurrentHashMap<>();
+    private final boolean readOnly;
+    private volatile @Nullable NavigableSet<String> keyIndex;
+    /**
+     * The keys referenced by expressions mapped to the keys of the entries with those expressions.
+     */
+    private final Map<String, Set<String>> dependents = new ConcurrentHashMap<>();
+    /**
+     * The keys of entries with expressions mapped to the keys their expression references
+     * (the reverse of dependents) such that the old references can be removed.
+     */
+    private final Map<String, Set<String>> references = new ConcurrentHashMap<>();
 
     CoreMap() {
+      this.generation = new Generation(0, CoreHashTrie.EMPTY);
+      this.keyIndex = new ConcurrentSkipListSet<>();
+      this.readOnly = false;
     }
 
     CoreMap(CoreMap source) {
-      entryMap.putAll(source.entryMap);
+      // the generation is immutable so is shared rather than copied
+      this.generation = new Generation(0, source.generation.entries);
+      this.resolved.putAll(source.resolved);
+      this.readOnly = false;
+      generation.entries.forEach((key, entry) -> setDependent(key, entry.expression));
     }
 
     CoreMap(Properties source, String sourceName) {
+      this();
       source.forEach((key, value) -> {
         if (value != null) {
-          entryMap.put(key.toString(), CoreEntry.of(value.toString(), sourceName));
+          put(key.toString(), value.toString(), sourceName);
         }
       });
     }
 
+    /**
+     * Create a read only map of the given generation (used for snapshots) with the key index lazily built.
+     */
+    private CoreMap(Generation generation) {
+      this.generation = generation;
+      this.readOnly = true;
+    }
+
+    /**
+     * Return a read only snapshot of the current generation.
+     * <p>
+     * The snapshot shares the current (immutable) generation and is not affected by
+     * subsequently published changes. Entries resolved at runtime are not shared.
+     */
+    CoreMap snapshot() {
+      return new CoreMap(generation);
+    }
+
+    /**
+     * Return true if this is a read only snapshot.
+     */
+    boolean readOnly() {
+      return readOnly;
+    }
+
+    /**
+     * Return the version of the current generation.
+     */
+    long version() {
+      return generation.version;
+    }
+
     /**
      * Add all the entries from another source.
      */
     void addAll(CoreMap source) {
-      entryMap.putAll(source.entryMap);
+      source.forEach(this::put);
     }
 
     int size() {
-      return entryMap.size();
+      final CoreHashTrie entries = generation.entries;
+      int size = entries.size();
+      for (String key : resolved.keySet()) {
+        if (!entries.containsKey(key)) {
+          size++;
+        }
+      }
+      return size;
     }
 
     @Nullable
     CoreEntry get(String key) {
-      return entryMap.get(key);
+      final CoreEntry entry = generation.entries.get(key);
+      return entry != null ? entry : resolved.get(key);
     }
 
     /**
-     * Apply changes returning the set of modified keys.
+     * Apply the changes (in order) returning the set of modified keys.
+     * <p>
+     * The changes produce the next generation which is then published. Callers are
+     * expected to serialise calls to this method.
      */
-    Set<String> applyChanges(CoreEventBuilder eventBuilder) {
-      Set<String> modifiedKeys = new HashSet<>();
-      final var sourceName = "event:" + eventBuilder.name();
-      eventBuilder.forEachPut((key, value) -> {
-        if (value == null) {
-          if (entryMap.remove(key) != null) {
-            modifiedKeys.add(key);
+    Set<String> applyChanges(List<CoreEventBuilder> eventBuilders) {
+      if (readOnly) {
+        throw new IllegalStateException("The snapshot configuration is read only");
+      }
+      final Generation current = generation;
+      final Changes changes = new Changes(current.entries);
+      for (CoreEventBuilder eventBuilder : eventBuilders) {
+        changes.apply(eventBuilder);
+      }
+      final Set<String> modifiedKeys = changes.modifiedKeys;
+      // removed and then put again by a later builder
+      changes.removedKeys.removeIf(changes.entries::containsKey);
+      if (!modifiedKeys.isEmpty() && !dependents.isEmpty()) {
+        evalDependents(changes);
+      }
+      if (!modifiedKeys.isEmpty()) {
+        generation = new Generation(current.version + 1, changes.entries);
+        for (String key : modifiedKeys) {
+          // configured now or removed, either way resolved again
+          resolved.remove(key);
+        }
+        final var index = keyIndex;
+        if (index != null) {
+          // removed from the index after the new generation is published
+          index.removeAll(changes.removedKeys);
+        }
+      }
+      return modifiedKeys;
+    }
+
+    /**
+     * The changes being applied to produce the next generation.
+     */
+    private final class Changes {
+
+      private final Set<String> modifiedKeys = new HashSet<>();
+      private final List<String> removedKeys = new ArrayList<>();
+      private CoreHashTrie entries;
+
+      Changes(CoreHashTrie entries) {
+        this.entries = entries;
+      }
+
+      void apply(CoreEventBuilder eventBuilder) {
+        final var sourceName = "event:" + eventBuilder.name();
+        eventBuilder.forEachPut((key, value) -> {
+          if (value == null) {
+            remove(key);
+          } else {
+            final String expression = eventBuilder.expression(key);
+            if (putIfChanged(key, value, expression, sourceName)) {
+              modifiedKeys.add(key);
+              indexAdd(key);
+            }
+            setDependent(key, expression);
           }
-        } else if (putIfChanged(key, value, sourceName)) {
+        });
+      }
+
+      private void remove(String key) {
+        final CoreHashTrie next = entries.remove(key);
+        if (next != entries || resolved.containsKey(key)) {
+          entries = next;
+          setDependent(key, null);
           modifiedKeys.add(key);
+          removedKeys.add(key);
+        }
+      }
+
+      /**
+       * Return true if this put resulted in a modification (of the value).
+       */
+      private boolean putIfChanged(String key, String value, @Nullable String expression, String source) {
+        final CoreEntry entry = entries.get(key);
+        if (entry == null) {
+          entries = entries.put(key, CoreEntry.of(value, source, expression));
+          return true;
+        } else if (!Objects.equals(entry.value, value)) {
+          entries = entries.put(key, CoreEntry.of(value, source + " <- " + entry.source, expression));
+          return true;
+        } else if (!Objects.equals(entry.expression, expression)) {
+          // same value now evaluated from a different expression (or none)
+          entries = entries.put(key, CoreEntry.of(value, entry.source, expression));
         }
+        return false;
+      }
+    }
+
+    /**
+     * Re-evaluate the entries with expressions that reference the modified keys
+     * (transitively) adding those that change to the modified keys.
+     */
+    private void evalDependents(Changes changes) {
+      final var eval = new CoreExpressionEval(key -> {
+        final CoreEntry entry = changes.entries.get(key);
+        return entry == null ? null : entry.value;
       });
-      return modifiedKeys;
+      final Map<String, Integer> evalCounts = new HashMap<>();
+      final Deque<String> pending = new ArrayDeque<>(changes.modifiedKeys);
+      while (!pending.isEmpty()) {
+        final Set<String> keys = dependents.get(pending.poll());
+        if (keys == null) {
+          continue;
+        }
+        for (String dependentKey : keys) {
+          final CoreEntry entry = changes.entries.get(dependentKey);
+          if (entry == null || entry.expression == null || evalCounts.merge(dependentKey, 1, Integer::sum) > MAX_EVAL) {
+            continue;
+          }
+          final String value = eval.eval(entry.expression);
+          if (!value.equals(entry.value)) {
+            changes.entries = changes.entries.put(dependentKey, new CoreEntry(value, entry.source, entry.expression));
+            changes.modifiedKeys.add(dependentKey);
+            pending.add(dependentKey);
+          }
+        }
+      }
+    }
+
+    /**
+     * Register the keys referenced by the expression of the given entry key, removing
+     * the references of its previous expression (or all references when null).
+     */
+    private void setDependent(String key, @Nullable String expression) {
+      final Set<String> newReferences = new HashSet<>();
+      if (expression != null) {
+        CoreExpressionEval.Template.of(expression).forEachReference(newReferences::add);
+      }
+      final Set<String> oldReferences = newReferences.isEmpty() ? references.remove(key) : references.put(key, newReferences);
+      if (oldReferences != null) {
+        for (String reference : oldReferences) {
+          if (!newReferences.contains(reference)) {
+            dependents.computeIfPresent(reference, (k, keys) -> keys.remove(key) && keys.isEmpty() ? null : keys);
+          }
+        }
+      }
+      for (String reference : newReferences) {
+        dependents.computeIfAbsent(reference, k -> ConcurrentHashMap.newKeySet()).add(key);
+      }
+    }
+
+    /**
+     * Return the number of keys referenced by expressions (for testing).
+     */
+    int dependentsSize() {
+      return dependents.size();
+    }
+
+    private void indexAdd(String key) {
+      final var index = keyIndex;
+      if (index != null) {
+        index.add(key);
+      }
+    }
+
+    private NavigableSet<String> keyIndex() {
+      NavigableSet<String> index = keyIndex;
+      if (index == null) {
+        synchronized (this) {
+          index = keyIndex;
+          if (index == null) {
+            final NavigableSet<String> newIndex = new ConcurrentSkipListSet<>();
+            forEach((key, entry) -> newIndex.add(key));
+            index = newIndex;
+            keyIndex = index;
+          }
+        }
+      }
+      return index;
+    }
+
+    /**
+     * Return the keys that are equal to the path or start with the path followed by a dot.
+     */
+    Set<String> keys(String path) {
+      final Set<String> keys = new LinkedHashSet<>();
+      if (containsKey(path)) {
+        keys.add(path);
+      }
+      forEachWithPrefix(path + '.', (key, entry) -> keys.add(key));
+      return keys;
+    }
+
+    /**
+     * Visit all the entries with keys starting with the given prefix in key order.
+     */
+    void forEachWithPrefix(String prefix, BiConsumer<String, CoreEntry> consumer) {
+      for (String key : keyIndex().subSet(prefix, true, prefix + Character.MAX_VALUE, false)) {
+        final CoreEntry entry = get(key);
+        if (entry != null) {
+          consumer.accept(key, entry);
+        }
+      }
     }
 
     /**
      * Return true if this is a change in value.
      */
     boolean isChanged(String key, String value) {
-      final CoreEntry entry = entryMap.get(key);
+      final CoreEntry entry = generation.entries.get(key);
       return entry == null || !Objects.equals(entry.value, value);
     }
 
     /**
-     * Return true if this put resulted in a modification.
+     * Return true if this is a change in value or in the expression it was evaluated from.
+     * <p>
+     * This compares with the configured entries only, such that setting a value equal
+     * to a runtime resolved default value is not ignored.
      */
-    private boolean putIfChanged(String key, String value, String source) {
-      final CoreEntry entry = entryMap.get(key);
-      if (entry == null) {
-        entryMap.put(key, CoreEntry.of(value, source));
-        return true;
-      } else if (!Objects.equals(entry.value, value)) {
-        entryMap.put(key, CoreEntry.of(value, source + " <- " + entry.source));
-        return true;
-      }
-      return false;
+    boolean isChanged(String key, String value, @Nullable String expression) {
+      final CoreEntry entry = generation.entries.get(key);
+      return entry == null || !Objects.equals(entry.value, value) || !Objects.equals(entry.expression, expression);
     }
 
     Set<String> keys() {
-      return entryMap.keySet();
+      final Set<String> keys = new LinkedHashSet<>();
+      forEach((key, entry) -> keys.add(key));
+      return Collections.unmodifiableSet(keys);
     }
 
     boolean containsKey(String key) {
-      return entryMap.containsKey(key);
+      return generation.entries.containsKey(key) || resolved.containsKey(key);
     }
 
+    /**
+     * Put the entry (used when loading, prior to publishing).
+     */
     void put(String key, CoreEntry value) {
-      entryMap.put(key, value);
+      if (value.isNull()) {
+        // not defined, misses are not held as entries
+        return;
+      }
+      indexAdd(key);
+      setDependent(key, value.expression);
+      final Generation current = generation;
+      generation = new Generation(current.version, current.entries.put(key, value));
+      resolved.remove(key);
     }
 
     void put(String key, String value, String source) {
-      entryMap.put(key, CoreEntry.of(value, source));
+      put(key, CoreEntry.of(value, source));
+    }
+
+    /**
+     * Put the runtime resolved entry if there is no existing entry for the key
+     * returning the existing entry (or null if the given entry was put).
+     * <p>
+     * This is used to cache runtime resolved entries (System property or environment
+     * variable backed values) such that it does not overwrite an entry concurrently published.
+     */
+    @Nullable
+    CoreEntry putIfAbsent(String key, CoreEntry value) {
+      final CoreEntry existing = generation.entries.get(key);
+      if (existing != null) {
+        return existing;
+      }
+      indexAdd(key);
+      return resolved.putIfAbsent(key, value);
     }
 
     @Nullable
     String raw(String key) {
-      final var entry = entryMap.get(key);
+      final var entry = get(key);
       return entry == null ? null : entry.value();
     }
 
     void forEach(BiConsumer<String, CoreEntry> consumer) {
-      entryMap.forEach(consumer);
+      final CoreHashTrie entries = generation.entries;
+      entries.forEach(consumer);
+      if (!resolved.isEmpty()) {
+        resolved.forEach((key, entry) -> {
+          if (!entries.containsKey(key)) {
+            consumer.accept(key, entry);
+          }
+        });
+      }
+    }
+  }
+
+  /**
+   * An immutable version of the configured entries.
+   */
+  private static final class Generation {
+
+    private final long version;
+    private final CoreHashTrie entries;
+
+    Generation(long version, CoreHashTrie entries) {
+      this.version = version;
+      this.entries = entries;
     }
   }
 }
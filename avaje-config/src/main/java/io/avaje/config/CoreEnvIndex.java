@@ -0,0 +1,53 @@
+package io.avaje.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Immutable index of the environment variables used for fallback lookups.
+ * <p>
+ * Lookups are by the raw name and then by the env style name (upper case with dots
+ * replaced by underscores) such that {@code my.foo} finds {@code MY_FOO}, each being a
+ * single hash lookup. The environment of the JVM does not change so this is built once.
+ * <p>
+ * System properties are not indexed as they are mutable and {@code System.getProperty()}
+ * is already a single map lookup.
+ */
+@NullMarked
+final class CoreEnvIndex {
+
+  private static final CoreEnvIndex instance = new CoreEnvIndex(System.getenv());
+
+  private final Map<String, String> env;
+
+  CoreEnvIndex(Map<String, String> env) {
+    this.env = new HashMap<>(env);
+  }
+
+  /**
+   * Return the index of the environment.
+   */
+  static CoreEnvIndex get() {
+    return instance;
+  }
+
+  /**
+   * Return the value of the environment variable with the given name.
+   */
+  @Nullable
+  String raw(String name) {
+    return env.get(name);
+  }
+
+  /**
+   * Return the value of the environment variable by raw name or otherwise env style name.
+   */
+  @Nullable
+  String lookup(String key) {
+    final String value = env.get(key);
+    return value != null ? value : env.get(CoreConfiguration.toEnvKey(key));
+  }
+}
@@ -1,10 +1,16 @@
 package io.avaje.config;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiConsumer;
 
+import org.jspecify.annotations.Nullable;
+
 import static java.util.Objects.requireNonNull;
 
 final class CoreEventBuilder implements ModificationEvent.Builder {
@@ -13,6 +19,10 @@ final class CoreEventBuilder implements ModificationEvent.Builder {
   private final CoreConfiguration origin;
   private final CoreEntry.CoreMap snapshot;
   private final Map<String, String> changes = new LinkedHashMap<>();
+  private final Map<String, String> expressions = new HashMap<>();
+  private final Map<String, @Nullable String> runtime = new LinkedHashMap<>();
+  private @Nullable String layer;
+  private final CompletableFuture<Void> applied = new CompletableFuture<>();
 
 
   CoreEventBuilder(String name, CoreConfiguration origin, CoreEntry.CoreMap snapshot) {
@@ -39,39 +49,151 @@ final class CoreEventBuilder implements ModificationEvent.Builder {
     return this;
   }
 
+  @Override
+  public ModificationEvent.Builder layer(String name) {
+    requireNonNull(name);
+    if (!changes.isEmpty()) {
+      throw new IllegalStateException("The layer must be set before making changes");
+    }
+    this.layer = name;
+    return this;
+  }
+
   @Override
   public ModificationEvent.Builder put(String key, String value) {
     requireNonNull(key);
     requireNonNull(value);
-    value = origin.eval(value);
-    if (snapshot.isChanged(key, value)) {
+    key = origin.fullKey(key);
+    if (layer != null) {
+      // raw value resolved against the other layers when applied
       changes.put(key, value);
+    } else {
+      runtime.put(key, value);
+      putEffective(key, value);
     }
     return this;
   }
 
+  private void putEffective(String key, String value) {
+    final String expression = value.contains("${") ? value : null;
+    value = origin.eval(value);
+    if (snapshot.isChanged(key, value, expression)) {
+      changes.put(key, value);
+      if (expression != null) {
+        expressions.put(key, expression);
+      } else {
+        expressions.remove(key);
+      }
+    }
+  }
+
   @Override
   public ModificationEvent.Builder remove(String key) {
     requireNonNull(key);
-    if (snapshot.containsKey(key)) {
+    key = origin.fullKey(key);
+    if (layer != null) {
       changes.put(key, null);
+    } else {
+      runtime.put(key, null);
+      removeEffective(key);
     }
     return this;
   }
 
+  private void removeEffective(String key) {
+    if (snapshot.containsKey(key)) {
+      changes.put(key, null);
+      expressions.remove(key);
+    }
+  }
+
+  /**
+   * Resolve the changes against the layers such that only the keys whose winning
+   * layer changed are applied (with removals falling back to lower layers).
+   */
+  void resolveLayers(CoreLayers layers) {
+    if (layer == null) {
+      // runtime changes override all the layers, clearing one falls back to the layers
+      runtime.forEach((key, value) -> {
+        final String fallback = layers.override(key, value);
+        if (fallback != null) {
+          changes.remove(key);
+          expressions.remove(key);
+          putEffective(key, fallback);
+        }
+      });
+      return;
+    }
+    final Map<String, String> layerChanges = new LinkedHashMap<>(changes);
+    changes.clear();
+    layers.apply(layer, layerChanges, (key, value) -> {
+      if (value == null) {
+        removeEffective(key);
+      } else {
+        putEffective(key, value);
+      }
+    });
+  }
+
   @Override
   public void publish() {
     origin.publishEvent(this);
   }
 
   boolean hasChanges() {
-    return !changes.isEmpty();
+    return !changes.isEmpty() || !runtime.isEmpty();
+  }
+
+  /**
+   * Return the keys put or removed without a layer (including keys that did not change).
+   */
+  Set<String> runtimeKeys() {
+    return runtime.keySet();
   }
 
   void forEachPut(BiConsumer<String, String> consumer) {
     changes.forEach(consumer);
   }
 
+  /**
+   * Return the expression the value for the given key was evaluated from (or null).
+   */
+  @Nullable
+  String expression(String key) {
+    return expressions.get(key);
+  }
+
+  /**
+   * Mark the changes as applied to the configuration (no effect if already failed).
+   */
+  void applied() {
+    applied.complete(null);
+  }
+
+  /**
+   * Mark the changes as failed to be applied.
+   */
+  void failed(Throwable e) {
+    applied.completeExceptionally(e);
+  }
+
+  /**
+   * Wait for the changes to be applied rethrowing the failure if they were not.
+   */
+  void await() {
+    try {
+      applied.join();
+    } catch (CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
   String name() {
     return name;
   }
@@ -1,6 +1,12 @@
 package io.avaje.config;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Helper used to evaluate expressions such as ${CATALINA_HOME}.
@@ -20,21 +26,31 @@ final class CoreExpressionEval implements Configuration.ExpressionEval {
   private static final String END = "}";
   private static final String DOCKER_HOST = "docker.host";
 
-  private CoreEntry.CoreMap sourceMap;
-  private Properties sourceProperties;
+  private final CoreEntry.CoreMap sourceMap;
+  private final Function<String, String> localLookup;
 
   /**
    * Create with source map that can use used to eval expressions.
    */
   CoreExpressionEval(CoreEntry.CoreMap sourceMap) {
     this.sourceMap = sourceMap;
+    this.localLookup = sourceMap::raw;
   }
 
   /**
    * Create with source properties that can be used to eval expressions.
    */
   CoreExpressionEval(Properties sourceProperties) {
-    this.sourceProperties = sourceProperties;
+    this.sourceMap = null;
+    this.localLookup = sourceProperties::getProperty;
+  }
+
+  /**
+   * Create with a function used to lookup the values of other properties.
+   */
+  CoreExpressionEval(Function<String, String> localLookup) {
+    this.sourceMap = null;
+    this.localLookup = localLookup;
   }
 
   /**
@@ -51,7 +67,8 @@ final class CoreExpressionEval implements Configuration.ExpressionEval {
   private CoreEntry.CoreMap evalAll() {
     sourceMap.forEach((key, entry) -> {
       if (entry.needsEvaluation()) {
-        sourceMap.put(key, eval(entry.value()), entry.source());
+        // keep the expression such that the entry is re-evaluated when a referenced key changes
+        sourceMap.put(key, CoreEntry.of(eval(entry.value()), entry.source(), entry.value()));
       }
     });
     return sourceMap;
@@ -59,11 +76,15 @@ final class CoreExpressionEval implements Configuration.ExpressionEval {
 
   @Override
   public String eval(String val) {
-    return val == null ? null : evalRecurse(val);
+    if (val == null || !val.contains(START)) {
+      // fast path, no expressions
+      return val;
+    }
+    return evalRecurse(val);
   }
 
   private String evalRecurse(String input) {
-    final String resolved = evalInput(input);
+    final String resolved = Template.of(input).render(this);
     if (resolved.contains(START) && !resolved.equals(input)) {
       return evalRecurse(resolved);
     } else {
@@ -71,130 +92,176 @@ final class CoreExpressionEval implements Configuration.ExpressionEval {
     }
   }
 
-  private String evalInput(String input) {
-    final int start = input.indexOf(START);
-    if (start == -1) {
-      return input;
-    }
-    final int end = input.indexOf(END, start + 1);
-    return end == -1 ? input : eval(input, start, end);
-  }
-
   /**
    * Convert the expression usingEnvironment variables, System Properties or an existing property.
    */
   private String evaluateExpression(String exp) {
     String val = System.getProperty(exp);
     if (val == null) {
-      val = System.getenv(exp);
+      val = CoreEnvIndex.get().raw(exp);
       if (val == null) {
-        val = localLookup(exp);
+        val = localLookup.apply(exp);
       }
     }
     return val;
   }
 
-  private String localLookup(String exp) {
-    if (sourceMap != null) {
-      return sourceMap.raw(exp);
-    } else if (sourceProperties != null) {
-      return sourceProperties.getProperty(exp);
+  /**
+   * Resolve the reference to its value, default value or otherwise the unresolved expression.
+   */
+  private String resolve(Segment reference) {
+    final String expression = reference.text;
+    final String eval = evaluateExpression(expression);
+    if (eval != null) {
+      return eval;
+    } else if (reference.defaultValue != null) {
+      return reference.defaultValue;
+    } else if (DOCKER_HOST.equals(expression)) {
+      final String dockerHost = DockerHost.host();
+      System.setProperty("docker.host", dockerHost);
+      return dockerHost;
+    } else {
+      return START + expression + END;
     }
-    return null;
   }
 
-  private String eval(String val, int start, int end) {
-    return new EvalBuffer(val, start, end).process();
-  }
+  /**
+   * A literal or a reference (expression with optional default value) of a template.
+   */
+  private static final class Segment {
+
+    private final String text;
+    private final String defaultValue;
+    private final boolean reference;
 
-  private final class EvalBuffer {
-
-    private final StringBuilder buf = new StringBuilder();
-    private final String original;
-    private int position;
-    private int start;
-    private int end;
-    private String expression;
-    private String defaultValue;
-
-    EvalBuffer(String val, int start, int end) {
-      this.original = val;
-      this.start = start;
-      this.end = end;
-      this.position = 0;
-      moveToStart();
+    private Segment(String text, String defaultValue, boolean reference) {
+      this.text = text;
+      this.defaultValue = defaultValue;
+      this.reference = reference;
     }
 
-    void moveToStart() {
-      if (start > position) {
-        buf.append(original, position, start);
-        position = start;
-      }
+    static Segment literal(String text) {
+      return new Segment(text, null, false);
     }
 
-    void parseForDefault() {
-      int colonPos = original.indexOf(':', start);
+    /**
+     * Parse the reference between the start and end positions (which may include a default value).
+     */
+    static Segment reference(String original, int start, int end) {
+      final int colonPos = original.indexOf(':', start);
       if (colonPos > start && colonPos < end) {
-        expression = original.substring(start + START.length(), colonPos);
-        defaultValue = original.substring(colonPos + 1, end);
-      } else {
-        expression = original.substring(start + START.length(), end);
+        return new Segment(original.substring(start + START.length(), colonPos), original.substring(colonPos + 1, end), true);
       }
+      return new Segment(original.substring(start + START.length(), end), null, true);
     }
+  }
+
+  /**
+   * A value compiled into literal and reference segments such that it is only parsed once.
+   */
+  static final class Template {
 
-    void evaluate() {
-      String eval = evaluateExpression(expression);
-      if (eval != null) {
-        buf.append(eval);
-      } else {
-        if (defaultValue != null) {
-          buf.append(defaultValue);
-        } else if (DOCKER_HOST.equals(expression)) {
-          final String dockerHost = DockerHost.host();
-          buf.append(dockerHost);
-          System.setProperty("docker.host", dockerHost);
-        } else {
-          buf.append(START).append(expression).append(END);
+    private static final int MAX_CACHED = 2048;
+    /**
+     * Least recently used templates, bounded such that many distinct values evict only the
+     * least used templates rather than recompiling all of them.
+     */
+    private static final Map<String, Template> CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+        return size() > MAX_CACHED;
+      }
+    };
+
+    private final Segment[] segments;
+    private final int literalLength;
+
+    private Template(List<Segment> segments) {
+      this.segments = segments.toArray(new Segment[0]);
+      int length = 0;
+      for (Segment segment : this.segments) {
+        if (!segment.reference) {
+          length += segment.text.length();
         }
       }
+      this.literalLength = length;
     }
 
-    String end() {
-      if (end < original.length() - 1) {
-        buf.append(original.substring(end + 1));
+    /**
+     * Return the compiled template for the given value.
+     */
+    static Template of(String value) {
+      synchronized (CACHE) {
+        final Template template = CACHE.get(value);
+        if (template != null) {
+          return template;
+        }
+      }
+      // compiled outside the lock, a concurrent compile of the same value is harmless
+      final Template template = compile(value);
+      synchronized (CACHE) {
+        CACHE.put(value, template);
+      }
+      return template;
+    }
+
+    static int cacheSize() {
+      synchronized (CACHE) {
+        return CACHE.size();
       }
-      return buf.toString();
     }
 
-    boolean next() {
-      if (end < original.length()) {
-        int startPos = original.indexOf(START, end + 1);
-        if (startPos > -1) {
-          int endPos = original.indexOf(END, startPos + 1);
-          if (endPos > -1) {
-            if (startPos > end + 1) {
-              buf.append(original, end + 1, startPos);
-            }
-            this.start = startPos;
-            this.end = endPos;
-            return true;
-          }
+    static Template compile(String original) {
+      final List<Segment> segments = new ArrayList<>();
+      int start = original.indexOf(START);
+      int end = start == -1 ? -1 : original.indexOf(END, start + 1);
+      if (end == -1) {
+        segments.add(Segment.literal(original));
+        return new Template(segments);
+      }
+      if (start > 0) {
+        segments.add(Segment.literal(original.substring(0, start)));
+      }
+      while (true) {
+        segments.add(Segment.reference(original, start, end));
+        final int nextStart = original.indexOf(START, end + 1);
+        final int nextEnd = nextStart == -1 ? -1 : original.indexOf(END, nextStart + 1);
+        if (nextEnd == -1) {
+          break;
+        }
+        if (nextStart > end + 1) {
+          segments.add(Segment.literal(original.substring(end + 1, nextStart)));
         }
+        start = nextStart;
+        end = nextEnd;
+      }
+      if (end < original.length() - 1) {
+        segments.add(Segment.literal(original.substring(end + 1)));
       }
-      return false;
+      return new Template(segments);
     }
 
-    private void evalNext() {
-      parseForDefault();
-      evaluate();
+    /**
+     * Visit the expressions (keys) referenced by the template.
+     */
+    void forEachReference(Consumer<String> consumer) {
+      for (Segment segment : segments) {
+        if (segment.reference) {
+          consumer.accept(segment.text);
+        }
+      }
     }
 
-    String process() {
-      evalNext();
-      while (next()) {
-        evalNext();
+    String render(CoreExpressionEval eval) {
+      if (segments.length == 1) {
+        final Segment segment = segments[0];
+        return segment.reference ? eval.resolve(segment) : segment.text;
       }
-      return end();
+      final var buf = new StringBuilder(literalLength + 16 * segments.length);
+      for (Segment segment : segments) {
+        buf.append(segment.reference ? eval.resolve(segment) : segment.text);
+      }
+      return buf.toString();
     }
   }
 
@@ -0,0 +1,297 @@
+package io.avaje.config;
+
+import java.util.function.BiConsumer;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Immutable (persistent) hash trie of entries keyed by String.
+ * <p>
+ * Each put or remove returns a new trie that shares all the unchanged nodes with the
+ * previous one, copying only the path to the modified key. This allows each generation of
+ * the configuration to be immutable while a single change costs O(log n) rather than a
+ * copy of all the entries.
+ */
+@NullMarked
+final class CoreHashTrie {
+
+  static final CoreHashTrie EMPTY = new CoreHashTrie(BitmapNode.EMPTY, 0);
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private final Node root;
+  private final int size;
+
+  private CoreHashTrie(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  int size() {
+    return size;
+  }
+
+  @Nullable
+  CoreEntry get(String key) {
+    return root.get(0, hash(key), key);
+  }
+
+  boolean containsKey(String key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Return the trie with the given entry (this trie if the key already maps to the same entry).
+   */
+  CoreHashTrie put(String key, CoreEntry value) {
+    final boolean[] added = {false};
+    final Node newRoot = root.put(0, hash(key), key, value, added);
+    return newRoot == root ? this : new CoreHashTrie(newRoot, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * Return the trie without the given key (this trie if the key is not present).
+   */
+  CoreHashTrie remove(String key) {
+    final Node newRoot = root.remove(0, hash(key), key);
+    if (newRoot == root) {
+      return this;
+    }
+    return newRoot == null ? EMPTY : new CoreHashTrie(newRoot, size - 1);
+  }
+
+  void forEach(BiConsumer<String, CoreEntry> consumer) {
+    root.forEach(consumer);
+  }
+
+  private static int hash(String key) {
+    final int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  private abstract static class Node {
+
+    abstract @Nullable CoreEntry get(int shift, int hash, String key);
+
+    abstract Node put(int shift, int hash, String key, CoreEntry value, boolean[] added);
+
+    /**
+     * Return the node without the key, this node when the key is not present or null when empty.
+     */
+    abstract @Nullable Node remove(int shift, int hash, String key);
+
+    abstract void forEach(BiConsumer<String, CoreEntry> consumer);
+  }
+
+  /**
+   * Node with up to 32 slots indexed by 5 bits of the hash. Each slot is a key and value
+   * pair, or a null key and a sub node.
+   */
+  private static final class BitmapNode extends Node {
+
+    static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private final int bitmap;
+    private final Object[] array;
+
+    BitmapNode(int bitmap, Object[] array) {
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    private int index(int bit) {
+      return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    @Nullable
+    CoreEntry get(int shift, int hash, String key) {
+      final int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      final int index = index(bit);
+      final Object existingKey = array[index];
+      if (existingKey == null) {
+        return ((Node) array[index + 1]).get(shift + BITS, hash, key);
+      }
+      return key.equals(existingKey) ? (CoreEntry) array[index + 1] : null;
+    }
+
+    @Override
+    Node put(int shift, int hash, String key, CoreEntry value, boolean[] added) {
+      final int bit = bit(hash, shift);
+      final int index = index(bit);
+      if ((bitmap & bit) == 0) {
+        added[0] = true;
+        final Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, index);
+        newArray[index] = key;
+        newArray[index + 1] = value;
+        System.arraycopy(array, index, newArray, index + 2, array.length - index);
+        return new BitmapNode(bitmap | bit, newArray);
+      }
+      final Object existingKey = array[index];
+      final Object existingValue = array[index + 1];
+      if (existingKey == null) {
+        final Node child = (Node) existingValue;
+        final Node newChild = child.put(shift + BITS, hash, key, value, added);
+        return newChild == child ? this : with(index + 1, newChild);
+      }
+      if (key.equals(existingKey)) {
+        return existingValue == value ? this : with(index + 1, value);
+      }
+      added[0] = true;
+      final Node child = node(shift + BITS, (String) existingKey, (CoreEntry) existingValue, hash, key, value);
+      final Object[] newArray = array.clone();
+      newArray[index] = null;
+      newArray[index + 1] = child;
+      return new BitmapNode(bitmap, newArray);
+    }
+
+    private BitmapNode with(int index, Object value) {
+      final Object[] newArray = array.clone();
+      newArray[index] = value;
+      return new BitmapNode(bitmap, newArray);
+    }
+
+    @Override
+    @Nullable
+    Node remove(int shift, int hash, String key) {
+      final int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      final int index = index(bit);
+      final Object existingKey = array[index];
+      if (existingKey == null) {
+        final Node child = (Node) array[index + 1];
+        final Node newChild = child.remove(shift + BITS, hash, key);
+        if (newChild == child) {
+          return this;
+        }
+        return newChild == null ? without(bit, index) : with(index + 1, newChild);
+      }
+      return key.equals(existingKey) ? without(bit, index) : this;
+    }
+
+    @Nullable
+    private Node without(int bit, int index) {
+      if (bitmap == bit) {
+        return null;
+      }
+      final Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, index);
+      System.arraycopy(array, index + 2, newArray, index, array.length - index - 2);
+      return new BitmapNode(bitmap ^ bit, newArray);
+    }
+
+    @Override
+    void forEach(BiConsumer<String, CoreEntry> consumer) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (array[i] == null) {
+          ((Node) array[i + 1]).forEach(consumer);
+        } else {
+          consumer.accept((String) array[i], (CoreEntry) array[i + 1]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Return a node holding the two entries (with keys that differ).
+   */
+  private static Node node(int shift, String key1, CoreEntry value1, int hash2, String key2, CoreEntry value2) {
+    final int hash1 = hash(key1);
+    if (hash1 == hash2) {
+      return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+    }
+    final boolean[] added = {false};
+    return BitmapNode.EMPTY
+      .put(shift, hash1, key1, value1, added)
+      .put(shift, hash2, key2, value2, added);
+  }
+
+  /**
+   * Node of the key value pairs with the same hash.
+   */
+  private static final class CollisionNode extends Node {
+
+    private final int hash;
+    private final Object[] array;
+
+    CollisionNode(int hash, Object[] array) {
+      this.hash = hash;
+      this.array = array;
+    }
+
+    private int index(String key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    @Nullable
+    CoreEntry get(int shift, int hash, String key) {
+      final int index = this.hash == hash ? index(key) : -1;
+      return index == -1 ? null : (CoreEntry) array[index + 1];
+    }
+
+    @Override
+    Node put(int shift, int hash, String key, CoreEntry value, boolean[] added) {
+      if (this.hash != hash) {
+        // branch on the hash bits at this level
+        return new BitmapNode(bit(this.hash, shift), new Object[]{null, this})
+          .put(shift, hash, key, value, added);
+      }
+      final int index = index(key);
+      if (index == -1) {
+        added[0] = true;
+        final Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        newArray[array.length] = key;
+        newArray[array.length + 1] = value;
+        return new CollisionNode(hash, newArray);
+      }
+      if (array[index + 1] == value) {
+        return this;
+      }
+      final Object[] newArray = array.clone();
+      newArray[index + 1] = value;
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    @Nullable
+    Node remove(int shift, int hash, String key) {
+      final int index = this.hash == hash ? index(key) : -1;
+      if (index == -1) {
+        return this;
+      }
+      if (array.length == 2) {
+        return null;
+      }
+      final Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, index);
+      System.arraycopy(array, index + 2, newArray, index, array.length - index - 2);
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    void forEach(BiConsumer<String, CoreEntry> consumer) {
+      for (int i = 0; i < array.length; i += 2) {
+        consumer.accept((String) array[i], (CoreEntry) array[i + 1]);
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package io.avaje.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The raw values of each source (layer) of configuration in order of precedence.
+ * <p>
+ * The layers loaded initially have the precedence of their load order (later overrides
+ * earlier) followed by the {@code initial} layer (values put via the builder), layers
+ * added later (e.g. a remote source) and then the {@code runtime} layer of values
+ * set directly on the configuration.
+ * <p>
+ * A change to a layer only changes the merged configuration when no higher precedence
+ * layer defines the key, and removing a key from a layer falls back to the value of the
+ * next lower layer that defines it. This means only the keys whose winning layer changed
+ * are touched.
+ */
+@NullMarked
+final class CoreLayers {
+
+  static final String INITIAL = "initial";
+  static final String RUNTIME = "runtime";
+
+  /**
+   * Layers with the lowest precedence first, the last being the runtime layer.
+   */
+  private final List<Layer> layers = new ArrayList<>();
+
+  CoreLayers() {
+    layers.add(new Layer(RUNTIME));
+  }
+
+  /**
+   * Register the layer of a source loaded initially (in load order) even when it has no values
+   * such that values added to it later (e.g. by a reload) have the precedence of its load order.
+   */
+  synchronized void register(String layerName) {
+    layer(layerName);
+  }
+
+  /**
+   * Put the value into the layer (used when loading the initial configuration).
+   */
+  synchronized void put(String layerName, String key, String value) {
+    layer(layerName).values.put(key, value);
+  }
+
+  /**
+   * Record a value set or removed directly on the configuration (not via a layer).
+   * <p>
+   * Every value set is recorded (including one equal to the current merged value) such
+   * that a later change to a lower layer does not override it.
+   *
+   * @return For a removal of a value that was set directly, the value of the highest lower
+   * layer that defines the key (which becomes the merged value), otherwise null
+   */
+  @Nullable
+  synchronized String override(String key, @Nullable String value) {
+    final int index = layers.size() - 1;
+    final Layer runtime = layers.get(index);
+    if (value != null) {
+      runtime.values.put(key, value);
+      return null;
+    }
+    return runtime.values.remove(key) == null ? null : valueBelow(index, key);
+  }
+
+  /**
+   * Apply the changes to the layer notifying the keys whose merged value changes.
+   *
+   * @param layerName The layer being changed
+   * @param changes   The new values with null values for removed keys
+   * @param effective Receives the new merged value (null for removal) of the keys that changed
+   */
+  synchronized void apply(String layerName, Map<String, @Nullable String> changes, BiConsumer<String, @Nullable String> effective) {
+    final Layer layer = layer(layerName);
+    final int index = layers.indexOf(layer);
+    changes.forEach((key, value) -> {
+      final String previous = value == null ? layer.values.remove(key) : layer.values.put(key, value);
+      if (previous == null ? value == null : previous.equals(value)) {
+        return;
+      }
+      if (definedAbove(index, key)) {
+        // shadowed by a higher precedence layer
+        return;
+      }
+      effective.accept(key, value != null ? value : valueBelow(index, key));
+    });
+  }
+
+  /**
+   * Return a copy of the values of the layer (empty when there is no such layer).
+   */
+  synchronized Map<String, String> values(String layerName) {
+    for (Layer layer : layers) {
+      if (layer.name.equals(layerName)) {
+        return new HashMap<>(layer.values);
+      }
+    }
+    return Map.of();
+  }
+
+  /**
+   * Return the names of the layers with the lowest precedence first.
+   */
+  synchronized List<String> names() {
+    final List<String> names = new ArrayList<>(layers.size());
+    for (Layer layer : layers) {
+      names.add(layer.name);
+    }
+    return names;
+  }
+
+  private boolean definedAbove(int index, String key) {
+    for (int i = index + 1; i < layers.size(); i++) {
+      if (layers.get(i).values.containsKey(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Nullable
+  private String valueBelow(int index, String key) {
+    for (int i = index - 1; i >= 0; i--) {
+      final String value = layers.get(i).values.get(key);
+      if (value != null) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return the layer adding it (below the runtime layer) if it does not exist.
+   */
+  private Layer layer(String name) {
+    for (Layer layer : layers) {
+      if (layer.name.equals(name)) {
+        return layer;
+      }
+    }
+    final var layer = new Layer(name);
+    layers.add(layers.size() - 1, layer);
+    return layer;
+  }
+
+  private static final class Layer {
+
+    private final String name;
+    private final Map<String, String> values = new HashMap<>();
+
+    Layer(String name) {
+      this.name = name;
+    }
+  }
+}
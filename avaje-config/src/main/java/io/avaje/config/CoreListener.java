@@ -1,38 +1,123 @@
 package io.avaje.config;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import static java.lang.System.Logger.Level.ERROR;
 
 /**
  * Wraps the listener taking the interesting keys into account.
+ * <p>
+ * With a coalescing window the matching events are merged and delivered as a
+ * single event once the window (started by the first event) has elapsed.
  */
 final class CoreListener {
 
   private final ConfigurationLog log;
   private final Consumer<ModificationEvent> listener;
   private final String[] keys;
+  private final long windowMillis;
+  private final CoreConfiguration configuration;
+
+  private Set<String> pendingNames;
+  private Set<String> pendingKeys;
+  private CoreConfiguration pendingOrigin;
 
   CoreListener(ConfigurationLog log, Consumer<ModificationEvent> listener, String[] keys) {
+    this(log, listener, keys, 0, null);
+  }
+
+  CoreListener(ConfigurationLog log, Consumer<ModificationEvent> listener, String[] keys, long windowMillis, CoreConfiguration configuration) {
     this.log = log;
     this.listener = listener;
     this.keys = keys;
+    this.windowMillis = windowMillis;
+    this.configuration = configuration;
+  }
+
+  String[] keys() {
+    return keys;
   }
 
+  /**
+   * Return true if the key is a prefix pattern like {@code log.level.*}.
+   */
+  static boolean isPrefix(String key) {
+    return key.endsWith("*");
+  }
+
+  /**
+   * Notify the listener if the event matches the keys it is interested in.
+   */
   void accept(CoreModificationEvent event) {
     if (keys == null || keys.length == 0 || containsKey(event)) {
-      try {
-        listener.accept(event);
-      } catch (Exception e) {
-        log.log(ERROR, "Error during onChange notification", e);
+      deliver(event);
+    }
+  }
+
+  /**
+   * Notify the listener with the event already matched to its keys.
+   */
+  void deliver(CoreModificationEvent event) {
+    if (windowMillis > 0) {
+      coalesce(event);
+    } else {
+      notify(event);
+    }
+  }
+
+  private void notify(ModificationEvent event) {
+    try {
+      listener.accept(event);
+    } catch (Exception e) {
+      log.log(ERROR, "Error during onChange notification", e);
+    }
+  }
+
+  private void coalesce(CoreModificationEvent event) {
+    final boolean startWindow;
+    synchronized (this) {
+      startWindow = pendingKeys == null;
+      if (startWindow) {
+        pendingNames = new LinkedHashSet<>();
+        pendingKeys = new LinkedHashSet<>();
       }
+      pendingNames.add(event.name());
+      pendingKeys.addAll(event.modifiedKeys());
+      pendingOrigin = event.origin();
+    }
+    if (startWindow && !configuration.scheduleOnce(windowMillis, this::flush)) {
+      // closed so deliver without waiting for the window
+      flush();
+    }
+  }
+
+  /**
+   * Deliver the merged event (via the mailbox of this listener when notifying asynchronously).
+   */
+  private void flush() {
+    final CoreModificationEvent event;
+    synchronized (this) {
+      event = new CoreModificationEvent(String.join(",", pendingNames), pendingKeys, pendingOrigin);
+      pendingNames = null;
+      pendingKeys = null;
+      pendingOrigin = null;
     }
+    configuration.deliver(this, () -> notify(event));
   }
 
   private boolean containsKey(CoreModificationEvent event) {
     final var modifiedKeys = event.modifiedKeys();
     for (String key : keys) {
-      if (modifiedKeys.contains(key)) {
+      if (isPrefix(key)) {
+        final String prefix = key.substring(0, key.length() - 1);
+        for (String modifiedKey : modifiedKeys) {
+          if (modifiedKey.startsWith(prefix)) {
+            return true;
+          }
+        }
+      } else if (modifiedKeys.contains(key)) {
         return true;
       }
     }
@@ -0,0 +1,117 @@
+package io.avaje.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The event listeners indexed by the keys and key prefixes they are interested in.
+ * <p>
+ * Exact keys are indexed by a map and prefix patterns (keys ending with {@code *}) by
+ * a character trie such that only the listeners matching the modified keys are visited.
+ * Listeners are notified in the order they were registered.
+ */
+@NullMarked
+final class CoreListeners {
+
+  private final List<Registration> all = new CopyOnWriteArrayList<>();
+  private final Map<String, List<Registration>> byKey = new ConcurrentHashMap<>();
+  private final Node prefixes = new Node();
+  private int sequence;
+
+  /**
+   * Register the listener indexed by its keys.
+   */
+  synchronized void add(CoreListener listener) {
+    final var registration = new Registration(sequence++, listener);
+    final String[] keys = listener.keys();
+    if (keys == null || keys.length == 0) {
+      all.add(registration);
+      return;
+    }
+    for (String key : keys) {
+      if (CoreListener.isPrefix(key)) {
+        prefixes.add(key, 0, key.length() - 1, registration);
+      } else {
+        byKey.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(registration);
+      }
+    }
+  }
+
+  /**
+   * Notify the listeners that match any of the modified keys.
+   *
+   * @param asyncRunner When not null the listeners are notified via their mailboxes
+   */
+  void accept(CoreModificationEvent event, @Nullable CoreAsyncEventRunner asyncRunner) {
+    final var matched = new TreeMap<Integer, CoreListener>();
+    for (Registration registration : all) {
+      matched.put(registration.order, registration.listener);
+    }
+    for (String key : event.modifiedKeys()) {
+      final List<Registration> keyListeners = byKey.get(key);
+      if (keyListeners != null) {
+        addAll(matched, keyListeners);
+      }
+      prefixes.collect(key, matched);
+    }
+    for (CoreListener listener : matched.values()) {
+      if (asyncRunner == null) {
+        listener.deliver(event);
+      } else {
+        asyncRunner.deliver(listener, () -> listener.deliver(event));
+      }
+    }
+  }
+
+  private static void addAll(Map<Integer, CoreListener> matched, List<Registration> registrations) {
+    for (Registration registration : registrations) {
+      matched.put(registration.order, registration.listener);
+    }
+  }
+
+  private static final class Registration {
+
+    private final int order;
+    private final CoreListener listener;
+
+    Registration(int order, CoreListener listener) {
+      this.order = order;
+      this.listener = listener;
+    }
+  }
+
+  /**
+   * Trie node with the listeners for the prefix ending at this node.
+   */
+  private static final class Node {
+
+    private final Map<Character, Node> children = new ConcurrentHashMap<>();
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    void add(String prefix, int pos, int end, Registration registration) {
+      if (pos == end) {
+        registrations.add(registration);
+      } else {
+        children.computeIfAbsent(prefix.charAt(pos), c -> new Node()).add(prefix, pos + 1, end, registration);
+      }
+    }
+
+    void collect(String key, Map<Integer, CoreListener> matched) {
+      @Nullable Node node = this;
+      int pos = 0;
+      while (node != null) {
+        addAll(matched, node.registrations);
+        if (pos == key.length()) {
+          return;
+        }
+        node = node.children.get(key.charAt(pos++));
+      }
+    }
+  }
+}
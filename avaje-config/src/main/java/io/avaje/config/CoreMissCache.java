@@ -0,0 +1,114 @@
+package io.avaje.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Bounded cache of keys known to have no value (not configured and no
+ * System property or environment variable) along with the default value
+ * they were first looked up with.
+ * <p>
+ * This is kept separate from the configuration entries such that looking up
+ * dynamically built keys that do not exist (with or without a default value)
+ * does not grow the configuration. When full the least recently used keys are
+ * evicted first.
+ */
+@NullMarked
+final class CoreMissCache {
+
+  private final int maxSize;
+  private final Map<String, CoreEntry> keys;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  CoreMissCache(int maxSize) {
+    this.maxSize = Math.max(0, maxSize);
+    this.keys = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CoreEntry> eldest) {
+        if (size() > CoreMissCache.this.maxSize) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Return the cached entry (a default value or the null entry) for a key known to have no value.
+   */
+  @Nullable
+  CoreEntry get(String key) {
+    final CoreEntry entry;
+    synchronized (keys) {
+      entry = keys.get(key);
+    }
+    if (entry != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return entry;
+  }
+
+  /**
+   * Cache the entry for a key known to have no value returning the entry to use.
+   * <p>
+   * An existing default value is kept such that the first default value used is
+   * returned consistently (until a value is published for the key).
+   */
+  CoreEntry put(String key, CoreEntry entry) {
+    if (maxSize == 0) {
+      return entry;
+    }
+    synchronized (keys) {
+      final CoreEntry existing = keys.get(key);
+      if (existing != null && (!existing.isNull() || entry.isNull())) {
+        return existing;
+      }
+      keys.put(key, entry);
+      return entry;
+    }
+  }
+
+  /**
+   * Invalidate the given keys as they now have values.
+   */
+  void invalidate(Set<String> publishedKeys) {
+    synchronized (keys) {
+      if (!keys.isEmpty()) {
+        keys.keySet().removeAll(publishedKeys);
+      }
+    }
+  }
+
+  int size() {
+    synchronized (keys) {
+      return keys.size();
+    }
+  }
+
+  long hitCount() {
+    return hits.sum();
+  }
+
+  long missCount() {
+    return misses.sum();
+  }
+
+  long evictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "MissCache[size:" + size() + " hits:" + hitCount() + " misses:" + missCount() + " evictions:" + evictionCount() + "]";
+  }
+}
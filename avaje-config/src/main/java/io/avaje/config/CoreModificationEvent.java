@@ -24,6 +24,10 @@ final class CoreModificationEvent implements ModificationEvent {
     return origin;
   }
 
+  CoreConfiguration origin() {
+    return origin;
+  }
+
   @Override
   public Set<String> modifiedKeys() {
     return modifiedKeys;
@@ -0,0 +1,213 @@
+package io.avaje.config;
+
+import static java.lang.System.Logger.Level.ERROR;
+
+import java.time.Duration;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Live typed property handle that holds the parsed value.
+ * <p>
+ * The value is updated when the configuration is modified and read
+ * via a single volatile field read (no map lookup and no parsing).
+ */
+@NullMarked
+abstract class CoreProperty {
+
+  private final String key;
+
+  CoreProperty(String key) {
+    this.key = key;
+  }
+
+  public final String key() {
+    return key;
+  }
+
+  /**
+   * Update the value with the new raw value (null when removed, reverting to the default).
+   */
+  final void update(@Nullable String rawValue, ConfigurationLog log) {
+    try {
+      if (rawValue == null) {
+        reset();
+      } else {
+        parse(rawValue);
+      }
+    } catch (Exception e) {
+      log.log(ERROR, "Invalid value [" + rawValue + "] for property " + key + ", keeping the existing value", e);
+    }
+  }
+
+  /**
+   * Return true if this is a property of the same type and default value (for the same key).
+   */
+  final boolean sameAs(CoreProperty other) {
+    return getClass() == other.getClass() && defaultValue().equals(other.defaultValue());
+  }
+
+  /**
+   * Return the default value.
+   */
+  abstract Object defaultValue();
+
+  /**
+   * Parse and set the new value.
+   */
+  abstract void parse(String rawValue);
+
+  /**
+   * Reset back to the default value.
+   */
+  abstract void reset();
+
+  static final class IntProp extends CoreProperty implements Configuration.IntProperty {
+
+    private final int defaultValue;
+    private volatile int value;
+
+    IntProp(String key, int defaultValue) {
+      super(key);
+      this.defaultValue = defaultValue;
+      this.value = defaultValue;
+    }
+
+    @Override
+    public int get() {
+      return value;
+    }
+
+    @Override
+    void parse(String rawValue) {
+      value = Integer.parseInt(rawValue);
+    }
+
+    @Override
+    Object defaultValue() {
+      return defaultValue;
+    }
+
+    @Override
+    void reset() {
+      value = defaultValue;
+    }
+
+    @Override
+    public String toString() {
+      return key() + "=" + value;
+    }
+  }
+
+  static final class LongProp extends CoreProperty implements Configuration.LongProperty {
+
+    private final long defaultValue;
+    private volatile long value;
+
+    LongProp(String key, long defaultValue) {
+      super(key);
+      this.defaultValue = defaultValue;
+      this.value = defaultValue;
+    }
+
+    @Override
+    public long get() {
+      return value;
+    }
+
+    @Override
+    void parse(String rawValue) {
+      value = Long.parseLong(rawValue);
+    }
+
+    @Override
+    Object defaultValue() {
+      return defaultValue;
+    }
+
+    @Override
+    void reset() {
+      value = defaultValue;
+    }
+
+    @Override
+    public String toString() {
+      return key() + "=" + value;
+    }
+  }
+
+  static final class BoolProp extends CoreProperty implements Configuration.BoolProperty {
+
+    private final boolean defaultValue;
+    private volatile boolean value;
+
+    BoolProp(String key, boolean defaultValue) {
+      super(key);
+      this.defaultValue = defaultValue;
+      this.value = defaultValue;
+    }
+
+    @Override
+    public boolean get() {
+      return value;
+    }
+
+    @Override
+    void parse(String rawValue) {
+      value = Boolean.parseBoolean(rawValue);
+    }
+
+    @Override
+    Object defaultValue() {
+      return defaultValue;
+    }
+
+    @Override
+    void reset() {
+      value = defaultValue;
+    }
+
+    @Override
+    public String toString() {
+      return key() + "=" + value;
+    }
+  }
+
+  static final class DurationProp extends CoreProperty implements Configuration.DurationProperty {
+
+    private final Duration defaultValue;
+    private volatile Duration value;
+
+    DurationProp(String key, Duration defaultValue) {
+      super(key);
+      this.defaultValue = defaultValue;
+      this.value = defaultValue;
+    }
+
+    @Override
+    public Duration get() {
+      return value;
+    }
+
+    @Override
+    void parse(String rawValue) {
+      value = Duration.parse(rawValue);
+    }
+
+    @Override
+    Object defaultValue() {
+      return defaultValue;
+    }
+
+    @Override
+    void reset() {
+      value = defaultValue;
+    }
+
+    @Override
+    public String toString() {
+      return key() + "=" + value;
+    }
+  }
+}
@@ -0,0 +1,208 @@
+package io.avaje.config;
+
+import static java.lang.System.Logger.Level.ERROR;
+import static java.lang.System.Logger.Level.WARNING;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Schedules the configuration tasks such as file watching and polling of remote sources.
+ * <p>
+ * A single scheduler thread only triggers the tasks with the executions running on a pool of
+ * reused (virtual when available) worker threads such that a slow task does not delay the
+ * other tasks.
+ * A periodic task that is still running when it is next due is skipped and counted as
+ * an overrun. The delays can have jitter applied (via {@code config.schedule.jitter}, for
+ * example {@code 0.1} for plus or minus 10%) to avoid synchronized polling across a fleet.
+ */
+@NullMarked
+final class CoreScheduler {
+
+  private final ConfigurationLog log;
+  private final double jitter;
+  private final ExecutorService workers = Executors.newCachedThreadPool(threadFactory("config-task-"));
+  private final AtomicLong overruns = new AtomicLong();
+  private @Nullable ScheduledExecutorService trigger;
+  private volatile boolean closed;
+
+  CoreScheduler(ConfigurationLog log, double jitter) {
+    this.log = log;
+    this.jitter = jitter;
+  }
+
+  /**
+   * Create with the jitter from the configuration.
+   */
+  static CoreScheduler of(ConfigurationLog log, CoreEntry.CoreMap entries) {
+    final String jitter = entries.raw("config.schedule.jitter");
+    return new CoreScheduler(log, jitter == null ? 0 : Double.parseDouble(jitter.trim()));
+  }
+
+  /**
+   * Schedule the task to run periodically.
+   *
+   * @throws IllegalArgumentException if the delay is negative or the period is not positive
+   */
+  synchronized void schedule(long delayMillis, long periodMillis, Runnable task) {
+    if (delayMillis < 0) {
+      throw new IllegalArgumentException("Negative delay.");
+    }
+    if (periodMillis <= 0) {
+      throw new IllegalArgumentException("Non-positive period.");
+    }
+    final Periodic periodic = new Periodic(task, periodMillis);
+    trigger().schedule(periodic, jitter(delayMillis), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Run the task once after the given delay.
+   *
+   * @return False when the scheduler is closed and the task will not be run
+   */
+  synchronized boolean scheduleOnce(long delayMillis, Runnable task) {
+    if (closed) {
+      return false;
+    }
+    trigger().schedule(() -> execute(task, null), delayMillis, TimeUnit.MILLISECONDS);
+    return true;
+  }
+
+  /**
+   * Return the total number of skipped executions due to the previous execution still running.
+   */
+  long overruns() {
+    return overruns.get();
+  }
+
+  /**
+   * Stop the scheduler such that no further tasks are run.
+   */
+  synchronized void close() {
+    closed = true;
+    if (trigger != null) {
+      trigger.shutdownNow();
+    }
+    workers.shutdownNow();
+  }
+
+  private synchronized ScheduledExecutorService trigger() {
+    if (closed) {
+      throw new IllegalStateException("Configuration is closed");
+    }
+    if (trigger == null) {
+      trigger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "ConfigTimer");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return trigger;
+  }
+
+  long jitter(long delayMillis) {
+    if (jitter <= 0 || delayMillis <= 0) {
+      return delayMillis;
+    }
+    final double offset = delayMillis * jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+    return Math.max(0, delayMillis + Math.round(offset));
+  }
+
+  private void execute(Runnable task, @Nullable AtomicBoolean running) {
+    try {
+      workers.execute(() -> {
+        try {
+          task.run();
+        } catch (Throwable e) {
+          log.log(ERROR, "Error executing scheduled task", e);
+        } finally {
+          if (running != null) {
+            running.set(false);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // closed
+      if (running != null) {
+        running.set(false);
+      }
+    }
+  }
+
+  /**
+   * A periodic task re-scheduled after each trigger such that each period can have jitter.
+   */
+  private final class Periodic implements Runnable {
+
+    private final Runnable task;
+    private final long periodMillis;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    Periodic(Runnable task, long periodMillis) {
+      this.task = task;
+      this.periodMillis = periodMillis;
+    }
+
+    /**
+     * Schedule the next execution unless the scheduler has been closed.
+     */
+    private void scheduleNext() {
+      synchronized (CoreScheduler.this) {
+        if (closed || trigger == null) {
+          return;
+        }
+        try {
+          trigger.schedule(this, Math.max(1, jitter(periodMillis)), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+          // closed
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      if (closed) {
+        return;
+      }
+      scheduleNext();
+      if (running.compareAndSet(false, true)) {
+        execute(task, running);
+      } else {
+        final long count = overruns.incrementAndGet();
+        log.log(WARNING, "Scheduled task {0} still running, skipped execution (total overruns {1})", task, count);
+      }
+    }
+  }
+
+  /**
+   * Return a virtual thread factory when available and otherwise a daemon thread factory.
+   */
+  static ThreadFactory threadFactory(String namePrefix) {
+    try {
+      final Method ofVirtual = Thread.class.getMethod("ofVirtual");
+      final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      final Object builder = builderType.getMethod("name", String.class, long.class)
+        .invoke(ofVirtual.invoke(null), namePrefix, 0L);
+      return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      final AtomicInteger counter = new AtomicInteger();
+      return runnable -> {
+        final Thread thread = new Thread(runnable, namePrefix + counter.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+      };
+    }
+  }
+}
@@ -1,14 +1,35 @@
 package io.avaje.config;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+
+import org.jspecify.annotations.Nullable;
 
 /**
  * Default implementation of the ResourceLoader.
+ * <p>
+ * Uses the build time {@link ResourceIndex} (when enabled) to read the indexed
+ * {@code application*} resources directly from their jar or directory and to skip
+ * looking up the resources that are known to not exist.
  */
 final class DefaultResourceLoader implements ResourceLoader {
 
+  private final ResourceIndex index = ResourceIndex.load(getClass().getClassLoader(), ClassLoader.getSystemClassLoader());
+
   @Override
   public InputStream getResourceAsStream(String resourcePath) {
+    final URL indexed = index.url(resourcePath);
+    if (indexed != null) {
+      try {
+        return indexed.openStream();
+      } catch (IOException e) {
+        // fall back to the class loader
+      }
+    }
+    if (index.absent(resourcePath)) {
+      return null;
+    }
     var inputStream = getClass().getResourceAsStream("/" + resourcePath);
     if (inputStream == null) {
       // search the module path for top level resource
@@ -16,4 +37,27 @@ final class DefaultResourceLoader implements ResourceLoader {
     }
     return inputStream;
   }
+
+  /**
+   * Return the URL of the resource (null if it does not exist).
+   */
+  @Nullable
+  URL url(String resourcePath) {
+    final URL indexed = index.url(resourcePath);
+    if (indexed != null) {
+      return indexed;
+    }
+    if (index.absent(resourcePath)) {
+      return null;
+    }
+    final URL url = getClass().getResource("/" + resourcePath);
+    return url != null ? url : ClassLoader.getSystemResource(resourcePath);
+  }
+
+  /**
+   * Return true if the resource is known to not exist.
+   */
+  boolean absent(String resourcePath) {
+    return index.absent(resourcePath);
+  }
 }
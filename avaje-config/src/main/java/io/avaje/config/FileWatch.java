@@ -1,44 +1,225 @@
 package io.avaje.config;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.InputStream;
+import java.io.IOException;
 import java.lang.System.Logger.Level;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.jspecify.annotations.Nullable;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches the loaded configuration files reloading them when they change.
+ * <p>
+ * By default ({@code config.watch.mode=auto}) the parent directories are watched via a
+ * {@link WatchService} with the changes debounced by {@code config.watch.debounceMillis}
+ * such that partially written files are not read. This falls back to polling the files
+ * every {@code config.watch.period} seconds when the platform WatchService is itself
+ * polling based or the directories can not be watched. Use {@code config.watch.mode=poll}
+ * where watch events are unreliable (e.g. network file systems) or {@code watch} to always
+ * use the WatchService.
+ * <p>
+ * Only the events for the watched file names (and the {@code ..data} symlink swapped by
+ * Kubernetes for mounted ConfigMaps) trigger a check, while any event in a watched
+ * configuration directory does. When a directory can no longer be watched (e.g. deleted
+ * and recreated) it is registered again or otherwise this falls back to polling.
+ */
 final class FileWatch {
 
   private final ConfigurationLog log;
-  private final Configuration configuration;
+  private final CoreConfiguration configuration;
   private final Parsers parsers;
   private final List<Entry> files;
+  private final List<ConfigDirectory> directories;
   private final long delay;
   private final long period;
+  private final long debounceMillis;
+  private final AtomicBoolean checkPending = new AtomicBoolean();
+  private final AtomicBoolean polling = new AtomicBoolean();
+  private final Map<Path, Set<Path>> watchedNames = new HashMap<>();
+  private final Set<Path> watchedDirectories = new HashSet<>();
+  private volatile long lastEventNanos;
+  private @Nullable WatchService watchService;
 
   FileWatch(CoreConfiguration configuration, List<File> loadedFiles, Parsers parsers) {
+    this(configuration, loadedFiles, Map.of(), List.of(), parsers);
+  }
+
+  /**
+   * Create watching the loaded files and directories.
+   *
+   * @param loadedDigests The digest of the content of the loaded files as initially parsed
+   */
+  FileWatch(CoreConfiguration configuration, List<File> loadedFiles, Map<File, byte[]> loadedDigests, List<ConfigDirectory> directories, Parsers parsers) {
     this.log = configuration.log();
+    this.directories = directories;
     this.configuration = configuration;
     this.delay = configuration.getLong("config.watch.delay", 60);
     this.period = configuration.getLong("config.watch.period", 10);
+    this.debounceMillis = configuration.getLong("config.watch.debounceMillis", 100);
     this.parsers = parsers;
-    this.files = initFiles(loadedFiles);
-    if (files.isEmpty()) {
+    this.files = initFiles(loadedFiles, loadedDigests);
+    if (files.isEmpty() && directories.isEmpty()) {
       log.log(Level.ERROR, "No files to watch?");
     } else {
-      configuration.schedule(delay * 1000, period * 1000, this::check);
+      final String mode = configuration.getNullable("config.watch.mode");
+      if ("poll".equalsIgnoreCase(mode) || !startWatchService("watch".equalsIgnoreCase(mode))) {
+        polling.set(true);
+        configuration.schedule(delay * 1000, period * 1000, this::check);
+      }
     }
   }
 
   @Override
   public String toString() {
-    return "Watch[period:" + period + " delay:" + delay + " files:" + files + "]";
+    final String mode = watchService == null ? "period:" + period + " delay:" + delay : "debounce:" + debounceMillis + "ms";
+    final String dirs = directories.isEmpty() ? "" : " directories:" + directories;
+    return "Watch[" + mode + " files:" + files + dirs + "]";
+  }
+
+  /**
+   * Start watching the parent directories returning false if polling should be used instead.
+   */
+  private boolean startWatchService(boolean forceWatch) {
+    final Set<Path> directories = new LinkedHashSet<>();
+    for (Entry file : files) {
+      directories.add(file.directory());
+      watchedNames.computeIfAbsent(file.directory(), k -> new HashSet<>()).add(file.fileName());
+    }
+    for (ConfigDirectory directory : this.directories) {
+      final Path path = directory.path().toAbsolutePath().normalize();
+      directories.add(path);
+      watchedDirectories.add(path);
+    }
+    try {
+      final WatchService service = FileSystems.getDefault().newWatchService();
+      if (!forceWatch && service.getClass().getName().contains("Polling")) {
+        // the platform implementation polls (macOS) with more latency than our own polling
+        service.close();
+        return false;
+      }
+      for (Path directory : directories) {
+        directory.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+      }
+      this.watchService = service;
+      final Thread thread = CoreScheduler.threadFactory("config-watch-").newThread(() -> watch(service));
+      thread.setDaemon(true);
+      thread.start();
+      log.log(Level.DEBUG, "watching directories {0} for changes", directories);
+      return true;
+    } catch (IOException | UnsupportedOperationException e) {
+      log.log(Level.WARNING, "Unable to watch directories " + directories + ", polling instead", e);
+      return false;
+    }
   }
 
-  private List<Entry> initFiles(List<File> loadedFiles) {
+  private void watch(WatchService service) {
+    try {
+      while (true) {
+        final WatchKey key = service.take();
+        final Path directory = (Path) key.watchable();
+        boolean check = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == OVERFLOW || watches(directory, (Path) event.context())) {
+            check = true;
+          }
+        }
+        if (!key.reset()) {
+          // no longer valid, the directory was deleted or is inaccessible
+          register(service, directory);
+          check = true;
+        }
+        if (check) {
+          onWatchEvent();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      // closed, stop watching
+    }
+  }
+
+  /**
+   * Return true if the change of the given file name in the directory should trigger a check.
+   */
+  boolean watches(Path directory, @Nullable Path fileName) {
+    if (fileName == null || watchedDirectories.contains(directory)) {
+      return true;
+    }
+    final Set<Path> names = watchedNames.get(directory);
+    return names != null && (names.contains(fileName) || fileName.toString().startsWith(".."));
+  }
+
+  /**
+   * Register the directory with the watch service again, falling back to polling when it can not be.
+   */
+  private void register(WatchService service, Path directory) {
+    try {
+      directory.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+    } catch (IOException e) {
+      if (polling.compareAndSet(false, true)) {
+        log.log(Level.WARNING, "Unable to watch directory " + directory + ", polling instead", e);
+        configuration.schedule(period * 1000, period * 1000, this::check);
+      }
+    }
+  }
+
+  /**
+   * Debounce the watch events such that the check runs once the files have stopped changing.
+   */
+  private void onWatchEvent() {
+    lastEventNanos = System.nanoTime();
+    if (checkPending.compareAndSet(false, true)) {
+      configuration.scheduleOnce(debounceMillis, this::debouncedCheck);
+    }
+  }
+
+  private void debouncedCheck() {
+    final long quietMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastEventNanos);
+    if (quietMillis < debounceMillis) {
+      // still being written
+      configuration.scheduleOnce(debounceMillis - quietMillis, this::debouncedCheck);
+      return;
+    }
+    checkPending.set(false);
+    check();
+  }
+
+  /**
+   * Stop watching the files.
+   */
+  void close() {
+    final WatchService service = watchService;
+    if (service != null) {
+      try {
+        service.close();
+      } catch (IOException e) {
+        log.log(Level.WARNING, "Error closing file watch service", e);
+      }
+    }
+  }
+
+  private List<Entry> initFiles(List<File> loadedFiles, Map<File, byte[]> loadedDigests) {
     List<Entry> entries = new ArrayList<>(loadedFiles.size());
     for (File loadedFile : loadedFiles) {
-      entries.add(new Entry(loadedFile));
+      entries.add(new Entry(loadedFile, loadedDigests.get(loadedFile)));
     }
     return entries;
   }
@@ -52,47 +233,106 @@ final class FileWatch {
     return false;
   }
 
-  void check() {
-    final Map<String, String> keyValues = new LinkedHashMap<>();
+  /**
+   * Reload the files that have changed publishing only the modified and removed keys.
+   * <p>
+   * A file with the same content (e.g. touched) is not parsed. The values are compared with
+   * the current values of the layer of the file (as initially loaded or last reloaded) such
+   * that only the modified and removed keys are published, and the changes are applied to
+   * the layer such that they respect the precedence of the other sources.
+   */
+  synchronized void check() {
     for (Entry file : files) {
       if (file.reload()) {
+        final byte[] content = file.content(log);
+        if (content == null || !file.contentChanged(content)) {
+          log.log(Level.TRACE, "unchanged content of {0}", file);
+          continue;
+        }
         log.log(Level.DEBUG, "reloading configuration from {0}", file);
-        if (file.isCustom()) {
-          reloadYaml(file, keyValues);
-        } else {
-          reloadProps(file, keyValues);
+        final Map<String, String> values = parse(file, content);
+        if (values != null) {
+          final var builder = configuration.eventBuilder("reload").layer(file.layerName());
+          file.diff(content, values, configuration.layerValues(file.layerName()), builder);
+          builder.publish();
         }
       }
     }
-    final var builder = configuration.eventBuilder("reload");
-    keyValues.forEach(builder::put);
-    builder.publish();
+    for (ConfigDirectory directory : directories) {
+      if (directory.changed()) {
+        reload(directory);
+      }
+    }
   }
 
-  private void reloadProps(Entry file, Map<String, String> keyValues) {
-    try (InputStream is = file.inputStream()) {
-      final var properties = new Properties();
-      properties.load(is);
-      Enumeration<?> enumeration = properties.propertyNames();
-      while (enumeration.hasMoreElements()) {
-        final String key = (String) enumeration.nextElement();
-        keyValues.put(key, properties.getProperty(key));
+  /**
+   * Reload all the files of the directory as one change (once per generation).
+   */
+  private void reload(ConfigDirectory directory) {
+    log.log(Level.DEBUG, "reloading configuration directory {0}", directory);
+    final Map<String, String> previous = directory.values();
+    final Map<String, String> values;
+    try {
+      values = directory.load();
+    } catch (Exception e) {
+      log.log(Level.ERROR, "Unexpected error reloading config directory " + directory, e);
+      return;
+    }
+    final var builder = configuration.eventBuilder("reload").layer(directory.layerName());
+    values.forEach((key, value) -> {
+      if (!value.equals(previous.get(key))) {
+        builder.put(key, value);
+      }
+    });
+    for (String key : previous.keySet()) {
+      if (!values.containsKey(key)) {
+        builder.remove(key);
       }
+    }
+    builder.publish();
+  }
+
+  @Nullable
+  private Map<String, String> parse(Entry file, byte[] content) {
+    try {
+      return file.isCustom() ? parseYaml(file, content) : parseProps(content);
     } catch (Exception e) {
       log.log(Level.ERROR, "Unexpected error reloading config file " + file, e);
+      return null;
     }
   }
 
-  private void reloadYaml(Entry file, Map<String, String> keyValues) {
+  private static Map<String, String> parseProps(byte[] content) throws IOException {
+    final var properties = new Properties();
+    properties.load(new ByteArrayInputStream(content));
+    final Map<String, String> keyValues = new LinkedHashMap<>();
+    Enumeration<?> enumeration = properties.propertyNames();
+    while (enumeration.hasMoreElements()) {
+      final String key = (String) enumeration.nextElement();
+      keyValues.put(key, properties.getProperty(key));
+    }
+    return keyValues;
+  }
+
+  @Nullable
+  private Map<String, String> parseYaml(Entry file, byte[] content) {
     var parser = parsers.get(file.extension);
     if (parser == null) {
       log.log(Level.ERROR, "Unexpected - no parser to reload config file " + file);
-    } else {
-      try (InputStream is = file.inputStream()) {
-        keyValues.putAll(parser.load(is));
-      } catch (Exception e) {
-        log.log(Level.ERROR, "Unexpected error reloading config file " + file, e);
-      }
+      return null;
+    }
+    return parser.load(new ByteArrayInputStream(content));
+  }
+
+  /**
+   * Return the digest used to detect a file reloaded with unchanged content.
+   */
+  static byte[] digest(byte[] content) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(content);
+    } catch (NoSuchAlgorithmException e) {
+      // required of every Java platform
+      throw new IllegalStateException(e);
     }
   }
 
@@ -102,11 +342,16 @@ final class FileWatch {
     private final String extension;
     private long lastMod;
     private long lastLength;
+    /**
+     * The SHA-256 digest of the content as initially loaded or last reloaded (null when unknown).
+     */
+    private byte @Nullable [] lastDigest;
 
-    Entry(File file) {
+    Entry(File file, byte @Nullable [] loadedDigest) {
       this.file = file;
       this.lastMod = file.lastModified();
       this.lastLength = file.length();
+      this.lastDigest = loadedDigest;
       var name = file.getName();
       this.extension = name.substring(name.lastIndexOf(".") + 1);
       this.customExtension = !"properties".equals(extension);
@@ -117,6 +362,14 @@ final class FileWatch {
       return file.toString();
     }
 
+    Path directory() {
+      return file.getAbsoluteFile().toPath().normalize().getParent();
+    }
+
+    Path fileName() {
+      return file.toPath().getFileName();
+    }
+
     boolean isCustom() {
       return customExtension;
     }
@@ -134,11 +387,48 @@ final class FileWatch {
       return file.lastModified() > lastMod || file.length() != lastLength;
     }
 
-    InputStream inputStream() {
+    /**
+     * Return true unless the content is the same as last loaded.
+     */
+    boolean contentChanged(byte[] content) {
+      return !Arrays.equals(digest(content), lastDigest);
+    }
+
+
+
+    /**
+     * Add the keys that are new or changed and the keys that have been removed compared to
+     * the previous values of the layer.
+     */
+    void diff(byte[] content, Map<String, String> values, Map<String, String> previous, ModificationEvent.Builder builder) {
+      values.forEach((key, value) -> {
+        final String trimmed = value.trim();
+        if (!trimmed.equals(previous.get(key))) {
+          builder.put(key, trimmed);
+        }
+      });
+      for (String key : previous.keySet()) {
+        if (!values.containsKey(key)) {
+          builder.remove(key);
+        }
+      }
+      lastDigest = digest(content);
+    }
+
+    /**
+     * Return the name of the layer which matches the source name of the initial load.
+     */
+    String layerName() {
+      return "file:" + file.getPath();
+    }
+
+    @Nullable
+    byte[] content(ConfigurationLog log) {
       try {
-        return new FileInputStream(file);
-      } catch (FileNotFoundException e) {
-        throw new RuntimeException(e);
+        return Files.readAllBytes(file.toPath());
+      } catch (IOException e) {
+        log.log(Level.ERROR, "Unexpected error reading config file " + file, e);
+        return null;
       }
     }
   }
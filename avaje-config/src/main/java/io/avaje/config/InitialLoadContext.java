@@ -5,10 +5,13 @@ import org.jspecify.annotations.Nullable;
 
 import java.io.*;
 import java.lang.System.Logger.Level;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the underlying map of properties we are gathering.
@@ -21,18 +24,29 @@ final class InitialLoadContext {
    * CoreMap we are loading the properties into.
    */
   private final CoreEntry.CoreMap map = CoreEntry.newMap();
+  /**
+   * The values by source in load order.
+   */
+  private final CoreLayers layers = new CoreLayers();
 
   /**
    * Names of resources/files that were loaded.
    */
   private final Set<String> loadedResources = new LinkedHashSet<>();
   private final List<File> loadedFiles = new ArrayList<>();
+  /**
+   * Digest of the content of the loaded files (parsed concurrently when prefetching).
+   */
+  private final Map<File, byte[]> loadedDigests = new ConcurrentHashMap<>();
+  private final List<ConfigDirectory> loadedDirectories = new ArrayList<>();
   private final CoreExpressionEval exprEval;
+  private final boolean snapshots;
 
   InitialLoadContext(ConfigurationLog log, ResourceLoader resourceLoader) {
     this.log = log;
     this.resourceLoader = resourceLoader;
     this.exprEval = new CoreExpressionEval(map);
+    this.snapshots = resourceLoader instanceof DefaultResourceLoader && ResourceSnapshot.enabled();
   }
 
   Set<String> loadedFrom() {
@@ -43,6 +57,25 @@ final class InitialLoadContext {
     return loadedFiles;
   }
 
+  Map<File, byte[]> loadedDigests() {
+    return loadedDigests;
+  }
+
+  List<ConfigDirectory> loadedDirectories() {
+    return loadedDirectories;
+  }
+
+  /**
+   * Load all the files of the directory as a single source.
+   */
+  void loadDirectory(ConfigDirectory directory) {
+    final String source = directory.layerName();
+    layers.register(source);
+    directory.load().forEach((key, value) -> put(key, value, source));
+    loadedResources.add(source);
+    loadedDirectories.add(directory);
+  }
+
   String eval(String expression) {
     return exprEval.eval(expression);
   }
@@ -66,6 +99,7 @@ final class InitialLoadContext {
   private void initSystemProperty(String envValue, String key) {
     if (envValue != null && System.getProperty(key) == null) {
       map.put(key, envValue, Constants.ENV_VARIABLES);
+      layers.put(Constants.ENV_VARIABLES, key, envValue);
     }
   }
 
@@ -84,25 +118,92 @@ final class InitialLoadContext {
    */
   @Nullable
   InputStream resource(String resourcePath, InitialLoader.Source source) {
-    InputStream is = null;
+    final InputStream is = open(resourcePath, source);
+    if (is != null) {
+      loaded(resourcePath, source);
+    }
+    return is;
+  }
+
+  /**
+   * Return the input stream (maybe null) without recording it as loaded.
+   */
+  @Nullable
+  InputStream open(String resourcePath, InitialLoader.Source source) {
     if (source == InitialLoader.Source.RESOURCE) {
-      is = resourceStream(resourcePath);
-      if (is != null) {
-        loadedResources.add("resource:" + resourcePath);
+      return resourceStream(resourcePath);
+    }
+    File file = new File(resourcePath);
+    if (!file.exists()) {
+      return null;
+    }
+    try {
+      return new FileInputStream(file);
+    } catch (FileNotFoundException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Parse the content returning the build time snapshot values of the resource instead when
+   * the snapshot is for the resource content.
+   */
+  Map<String, String> parse(String resourcePath, InitialLoader.Source source, InputStream is, ContentParser parser) throws IOException {
+    final var resourceSnapshot = source == InitialLoader.Source.RESOURCE ? snapshot(resourcePath) : null;
+    if (resourceSnapshot != null) {
+      if (resourceSnapshot.inJar()) {
+        return resourceSnapshot.values();
       }
-    } else {
-      File file = new File(resourcePath);
-      if (file.exists()) {
-        try {
-          is = new FileInputStream(file);
-          loadedResources.add("file:" + resourcePath);
-          loadedFiles.add(file);
-        } catch (FileNotFoundException e) {
-          throw new UncheckedIOException(e);
-        }
+      final byte[] content = is.readAllBytes();
+      if (resourceSnapshot.matches(content)) {
+        return resourceSnapshot.values();
       }
+      log.log(Level.DEBUG, "snapshot of {0} is out of date", resourcePath);
+      return parser.parse(new ByteArrayInputStream(content));
+    }
+    if (source == InitialLoader.Source.FILE && !resourcePath.endsWith(".bconf")) {
+      // the digest detects a later change event with the same content (bconf is memory mapped instead)
+      final byte[] content = is.readAllBytes();
+      loadedDigests.put(new File(resourcePath), FileWatch.digest(content));
+      return parser.parse(new ByteArrayInputStream(content));
+    }
+    return parser.parse(is);
+  }
+
+  @Nullable
+  private ResourceSnapshot snapshot(String resourcePath) {
+    if (!snapshots) {
+      return null;
+    }
+    final URL url = ((DefaultResourceLoader) resourceLoader).url(resourcePath);
+    return url == null ? null : ResourceSnapshot.find(url, resourcePath);
+  }
+
+  /**
+   * Parses the resource content.
+   */
+  interface ContentParser {
+
+    Map<String, String> parse(InputStream is) throws IOException;
+  }
+
+  /**
+   * Record the resource or file as loaded.
+   */
+  void loaded(String resourcePath, InitialLoader.Source source) {
+    final String sourceName = (source == InitialLoader.Source.RESOURCE ? "resource:" : "file:") + resourcePath;
+    layers.register(sourceName);
+    loadedResources.add(sourceName);
+    if (source != InitialLoader.Source.RESOURCE) {
+      loadedFiles.add(new File(resourcePath));
     }
-    return is;
+  }
+
+  /**
+   * Return true if the resource is known to not exist (via the build time index).
+   */
+  boolean resourceAbsent(String resourcePath) {
+    return resourceLoader instanceof DefaultResourceLoader && ((DefaultResourceLoader) resourceLoader).absent(resourcePath);
   }
 
   private InputStream resourceStream(String resourcePath) {
@@ -115,10 +216,15 @@ final class InitialLoadContext {
   void put(String key, String val, String source) {
     if (val != null) {
       val = val.trim();
+      layers.put(source, key, val);
     }
     map.put(key, val, source);
   }
 
+  CoreLayers layers() {
+    return layers;
+  }
+
   /**
    * Evaluate all the expressions and return as a Properties object.
    */
@@ -142,6 +248,18 @@ final class InitialLoadContext {
     return indirectLocation == null ? null : indirectLocation.value();
   }
 
+  /**
+   * Read the directories to load all the configuration files from.
+   */
+  String loadDirs() {
+    final String dirs = System.getProperty("config.load.dirs");
+    if (dirs != null) {
+      return dirs;
+    }
+    final var entry = map.get("config.load.dirs");
+    return entry == null ? null : entry.value();
+  }
+
   String profiles() {
     final var configEntry = map.get("config.profiles");
     final var configProfile = configEntry == null ? System.getProperty("config.profiles") : configEntry.value();
@@ -8,7 +8,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 
 import org.jspecify.annotations.NullMarked;
@@ -42,11 +45,13 @@ final class InitialLoader {
   private final InitialLoadContext loadContext;
   private final Set<String> profileResourceLoaded = new HashSet<>();
   private final Parsers parsers;
+  private final @Nullable InitialPrefetch prefetch;
 
   InitialLoader(CoreComponents components, ResourceLoader resourceLoader) {
     this.parsers = components.parsers();
     this.log = components.log();
     this.loadContext = new InitialLoadContext(log, resourceLoader);
+    this.prefetch = InitialPrefetch.enabled() ? new InitialPrefetch(loadContext) : null;
   }
 
   Set<String> loadedFrom() {
@@ -93,7 +98,7 @@ final class InitialLoader {
 
   void initWatcher(CoreConfiguration configuration) {
     if (configuration.getBool("config.watch.enabled", false)) {
-      configuration.setWatcher(new FileWatch(configuration, loadContext.loadedFiles(), parsers));
+      configuration.setWatcher(new FileWatch(configuration, loadContext.loadedFiles(), loadContext.loadedDigests(), loadContext.loadedDirectories(), parsers));
     }
   }
 
@@ -105,21 +110,65 @@ final class InitialLoader {
    * Load from local files and resources.
    */
   void loadLocalFiles() {
+    prefetchExpected();
     loadMain(RESOURCE);
+    prefetchProfiles();
     loadViaProfiles(RESOURCE);
     // external file configuration overrides the resources configuration
     loadMain(FILE);
+    prefetchProfiles();
     // load additional profile RESOURCE(s) if added via loadMain()
     loadViaProfiles(RESOURCE);
     loadViaProfiles(FILE);
     loadViaSystemProperty();
     loadViaIndirection();
+    loadViaDirectories();
     // test configuration (if found) overrides main configuration
     // we should only find these resources when running tests
     if (!loadTest()) {
       loadLocalDev();
     }
     loadViaCommandLineArgs();
+    if (prefetch != null) {
+      prefetch.close();
+    }
+  }
+
+  /**
+   * Start parsing the main and test resources in parallel (when enabled).
+   */
+  private void prefetchExpected() {
+    prefetch("application", RESOURCE);
+    prefetch("application", FILE);
+    if (!Boolean.getBoolean("suppressTestResource")) {
+      prefetch("application-test", RESOURCE);
+    }
+  }
+
+  /**
+   * Start parsing the resources of the currently known profiles.
+   */
+  private void prefetchProfiles() {
+    final var profiles = profiles();
+    if (profiles != null) {
+      for (final String path : profiles) {
+        final var profile = loadContext.eval(path);
+        prefetch("application-" + profile, RESOURCE);
+        prefetch("application-" + profile, FILE);
+      }
+    }
+  }
+
+  /**
+   * Start parsing the properties and other supported extensions of the resource path.
+   */
+  private void prefetch(String resourcePath, Source source) {
+    if (prefetch != null) {
+      prefetch.properties(resourcePath + ".properties", source);
+      for (var entry : parsers.entrySet()) {
+        prefetch.custom(resourcePath + "." + entry.getKey(), entry.getValue(), source);
+      }
+    }
   }
 
   private void loadViaCommandLineArgs() {
@@ -197,6 +246,23 @@ final class InitialLoader {
     }
   }
 
+  /**
+   * Load all the configuration files in the directories defined by <em>config.load.dirs</em>.
+   */
+  private void loadViaDirectories() {
+    final String dirs = loadContext.loadDirs();
+    if (dirs != null) {
+      for (String path : splitPaths(dirs)) {
+        final Path dir = Path.of(loadContext.eval(path));
+        if (Files.isDirectory(dir)) {
+          loadContext.loadDirectory(new ConfigDirectory(dir, parsers));
+        } else {
+          log.log(WARNING, "Unable to find directory {0} to load configuration files", dir);
+        }
+      }
+    }
+  }
+
   private String@Nullable[] profiles() {
     final String paths = loadContext.profiles();
     return paths == null ? null : splitPaths(paths);
@@ -218,11 +284,32 @@ final class InitialLoader {
   }
 
   private void loadViaPaths(String paths) {
-    for (String path : splitPaths(paths)) {
+    final String[] pathArray = splitPaths(paths);
+    if (prefetch != null) {
+      for (String path : pathArray) {
+        prefetchWithExtension(loadContext.eval(path), prefetch);
+      }
+    }
+    for (String path : pathArray) {
+      // evaluated again as an earlier path can define values used by a later path
       loadWithExtensionCheck(loadContext.eval(path));
     }
   }
 
+  private void prefetchWithExtension(String fileName, InitialPrefetch prefetch) {
+    final var extension = fileName.substring(fileName.lastIndexOf(".") + 1);
+    if ("properties".equals(extension)) {
+      prefetch.properties(fileName, RESOURCE);
+      prefetch.properties(fileName, FILE);
+    } else {
+      final var parser = parsers.get(extension);
+      if (parser != null) {
+        prefetch.custom(fileName, parser, RESOURCE);
+        prefetch.custom(fileName, parser, FILE);
+      }
+    }
+  }
+
   int size() {
     return loadContext.size();
   }
@@ -271,6 +358,13 @@ final class InitialLoader {
     }
   }
 
+  /**
+   * Return the layers of the loaded sources in load order.
+   */
+  CoreLayers layers() {
+    return loadContext.layers();
+  }
+
   /**
    * Evaluate all the configuration entries and return as properties.
    */
@@ -296,10 +390,14 @@ final class InitialLoader {
   }
 
   boolean loadCustomExtension(String resourcePath, ConfigParser parser, Source source) {
+    final var prefetched = prefetch == null ? null : prefetch.take(resourcePath, source);
+    if (prefetched != null) {
+      return loadPrefetched(resourcePath, source, prefetched);
+    }
     try (InputStream is = resource(resourcePath, source)) {
       if (is != null) {
         var sourceName = (source == RESOURCE ? "resource:" : "file:") + resourcePath;
-        parser.load(is).forEach((k, v) -> loadContext.put(k, v, sourceName));
+        loadContext.parse(resourcePath, source, is, parser::load).forEach((k, v) -> loadContext.put(k, v, sourceName));
         return true;
       }
     } catch (Exception e) {
@@ -309,9 +407,14 @@ final class InitialLoader {
   }
 
   boolean loadProperties(String resourcePath, Source source) {
+    final var prefetched = prefetch == null ? null : prefetch.take(resourcePath, source);
+    if (prefetched != null) {
+      return loadPrefetched(resourcePath, source, prefetched);
+    }
     try (InputStream is = resource(resourcePath, source)) {
       if (is != null) {
-        loadProperties(is, (source == RESOURCE ? "resource:" : "file") + resourcePath);
+        var sourceName = (source == RESOURCE ? "resource:" : "file:") + resourcePath;
+        loadContext.parse(resourcePath, source, is, InitialLoader::readProperties).forEach((k, v) -> loadContext.put(k, v, sourceName));
         return true;
       }
     } catch (IOException e) {
@@ -320,24 +423,38 @@ final class InitialLoader {
     return false;
   }
 
+  /**
+   * Merge the prefetched values returning false if the resource does not exist.
+   */
+  private boolean loadPrefetched(String resourcePath, Source source, CompletableFuture<@Nullable Map<String, String>> prefetched) {
+    final var values = InitialPrefetch.join(prefetched);
+    if (values == null) {
+      return false;
+    }
+    loadContext.loaded(resourcePath, source);
+    final var sourceName = (source == RESOURCE ? "resource:" : "file:") + resourcePath;
+    values.forEach((k, v) -> loadContext.put(k, v, sourceName));
+    return true;
+  }
+
   @Nullable
   private InputStream resource(String resourcePath, Source source) {
     return loadContext.resource(resourcePath, source);
   }
 
-  private void loadProperties(InputStream is, String source) throws IOException {
+  /**
+   * Read the properties returning the key values.
+   */
+  static Map<String, String> readProperties(InputStream is) throws IOException {
     Properties properties = new Properties();
     properties.load(is);
-    put(properties, source);
-  }
-
-  private void put(Properties properties, String source) {
+    Map<String, String> values = new LinkedHashMap<>();
     Enumeration<?> enumeration = properties.propertyNames();
     while (enumeration.hasMoreElements()) {
       String key = (String) enumeration.nextElement();
-      String val = properties.getProperty(key);
-      loadContext.put(key, val, source);
+      values.put(key, properties.getProperty(key));
     }
+    return values;
   }
 
 }
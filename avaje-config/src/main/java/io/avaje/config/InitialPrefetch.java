@@ -0,0 +1,151 @@
+package io.avaje.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Parses the initial configuration resources in parallel ahead of the InitialLoader
+ * merging them.
+ * <p>
+ * This only parses, the results are merged by the InitialLoader in the usual precedence
+ * order such that the resulting configuration is the same as sequential loading. The
+ * resources are opened by the loading thread and only the resources that exist are parsed
+ * using a small bounded pool of threads. Only the built in parsers (properties, yaml and
+ * bconf) are used in parallel, resources of other (third party) parsers are loaded
+ * sequentially as these parsers may not be thread safe. Resources that are prefetched but
+ * end up not being loaded are discarded.
+ * <p>
+ * Enabled via the system property {@code config.load.parallel=true}.
+ */
+@NullMarked
+final class InitialPrefetch {
+
+  private final InitialLoadContext loadContext;
+  private final ThreadPoolExecutor executor;
+  private final Set<String> requested = new HashSet<>();
+  private final Map<String, CompletableFuture<@Nullable Map<String, String>>> prefetched = new HashMap<>();
+
+  InitialPrefetch(InitialLoadContext loadContext) {
+    this.loadContext = loadContext;
+    final int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+    this.executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<>(), CoreScheduler.threadFactory("config-load-"));
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Return true if parallel loading has been enabled.
+   */
+  static boolean enabled() {
+    return Boolean.getBoolean("config.load.parallel");
+  }
+
+  /**
+   * Start parsing the properties resource.
+   */
+  void properties(String resourcePath, InitialLoader.Source source) {
+    submit(resourcePath, source, is -> {
+      try {
+        return loadContext.parse(resourcePath, source, is, InitialLoader::readProperties);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Error loading properties - " + resourcePath, e);
+      }
+    });
+  }
+
+  /**
+   * Start parsing the resource using the given parser (when it is a built in parser).
+   */
+  void custom(String resourcePath, ConfigParser parser, InitialLoader.Source source) {
+    if (!builtIn(parser)) {
+      return;
+    }
+    submit(resourcePath, source, is -> {
+      try {
+        return loadContext.parse(resourcePath, source, is, parser::load);
+      } catch (Exception e) {
+        throw new IllegalStateException("Error loading properties - " + resourcePath, e);
+      }
+    });
+  }
+
+  /**
+   * Return true for the built in parsers that are safe to use concurrently.
+   */
+  static boolean builtIn(ConfigParser parser) {
+    return parser instanceof PropertiesParser || parser instanceof YamlLoader || parser instanceof BinaryConfigParser;
+  }
+
+  /**
+   * Return the prefetched values (null values when the resource does not exist) or null
+   * when the resource was not prefetched.
+   */
+  @Nullable
+  CompletableFuture<@Nullable Map<String, String>> take(String resourcePath, InitialLoader.Source source) {
+    return prefetched.remove(key(resourcePath, source));
+  }
+
+  /**
+   * Stop the pool once the initial loading has completed.
+   */
+  void close() {
+    executor.shutdown();
+  }
+
+  /**
+   * Wait for the prefetched values rethrowing a read or parse failure.
+   */
+  @Nullable
+  static Map<String, String> join(CompletableFuture<@Nullable Map<String, String>> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private void submit(String resourcePath, InitialLoader.Source source, Function<InputStream, Map<String, String>> parser) {
+    if (source == InitialLoader.Source.RESOURCE && loadContext.resourceAbsent(resourcePath)) {
+      return;
+    }
+    final String key = key(resourcePath, source);
+    if (executor.isShutdown() || !requested.add(key)) {
+      return;
+    }
+    final InputStream is = loadContext.open(resourcePath, source);
+    if (is == null) {
+      prefetched.put(key, CompletableFuture.completedFuture(null));
+    } else {
+      prefetched.put(key, CompletableFuture.supplyAsync(() -> parse(resourcePath, is, parser), executor));
+    }
+  }
+
+  private static Map<String, String> parse(String resourcePath, InputStream is, Function<InputStream, Map<String, String>> parser) {
+    try (is) {
+      return parser.apply(is);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error loading properties - " + resourcePath, e);
+    }
+  }
+
+  private static String key(String resourcePath, InitialLoader.Source source) {
+    return source + ":" + resourcePath;
+  }
+}
@@ -46,6 +46,28 @@ public interface ModificationEvent {
    */
   interface Builder {
 
+    /**
+     * Apply the changes to the given layer (source of configuration) rather than directly.
+     * <p>
+     * Each source loaded initially is a layer named by its location such as
+     * {@code file:application.yaml} with the precedence of the load order. Other layers
+     * are added on first use with a precedence above the initially loaded layers but below
+     * the values set directly (e.g. via {@link Configuration#setProperty(String, String)}).
+     * <p>
+     * A change to a layer only modifies the configuration when no higher precedence layer
+     * defines the key, and removing a key falls back to the value of the next lower layer
+     * that defines it.
+     * <p>
+     * This must be set before making any changes.
+     * <p>
+     * The default implementation ignores the layer, applying the changes directly.
+     *
+     * @param name The name of the layer
+     */
+    default Builder layer(String name) {
+      return this;
+    }
+
     /**
      * Set a property value.
      *
@@ -7,7 +7,9 @@ package io.avaje.config;
  * in the background using an {@link java.util.concurrent.ExecutorService}.
  * <p>
  * The default is for event listener notification to be executed using the same thread
- * that is making the modifications to the configuration.
+ * that is making the modifications to the configuration. Setting {@code config.events.async=true}
+ * instead uses a built-in runner that notifies each listener in order on virtual threads
+ * (when available) such that a slow listener does not delay the other listeners.
  */
 public interface ModificationEventRunner extends ConfigExtension {
 
@@ -1,8 +1,10 @@
 package io.avaje.config;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.Set;
 
 /**
@@ -12,6 +14,12 @@ final class Parsers {
 
   private final Map<String, ConfigParser> parserMap = new HashMap<>();
 
+  /**
+   * The binary format is only used for explicitly named files and resources (for example via
+   * load.properties or -P) such that it does not add a probe for each resource name.
+   */
+  private final ConfigParser binaryParser = new BinaryConfigParser();
+
   Parsers(List<ConfigParser> otherParsers) {
     parserMap.put("properties", new PropertiesParser());
     if (!"true".equals(System.getProperty("skipYaml"))) {
@@ -22,6 +30,19 @@ final class Parsers {
     }
   }
 
+  /**
+   * Create with the ConfigParsers found via ServiceLoader (for use outside of configuration loading).
+   */
+  static Parsers withServiceLoaded() {
+    final List<ConfigParser> parsers = new ArrayList<>();
+    for (ConfigExtension extension : ServiceLoader.load(ConfigExtension.class)) {
+      if (extension instanceof ConfigParser) {
+        parsers.add((ConfigParser) extension);
+      }
+    }
+    return new Parsers(parsers);
+  }
+
   private void initYamlParser() {
     YamlLoader yamlLoader;
     try {
@@ -43,7 +64,7 @@ final class Parsers {
   }
 
   /**
-   * Return the extension ConfigParser pairs.
+   * Return the extension ConfigParser pairs probed for each resource name (not the binary format).
    */
   Set<Map.Entry<String, ConfigParser>> entrySet() {
     return parserMap.entrySet();
@@ -53,14 +74,16 @@ final class Parsers {
    * Return the ConfigParser for the given extension.
    */
   ConfigParser get(String extension) {
-    return parserMap.get(extension.toLowerCase());
+    final String lower = extension.toLowerCase();
+    final ConfigParser parser = parserMap.get(lower);
+    return parser == null && "bconf".equals(lower) ? binaryParser : parser;
   }
 
   /**
    * Return true if the extension has a matching parser.
    */
   boolean supportsExtension(String extension) {
-    return parserMap.containsKey(extension.toLowerCase());
+    return get(extension) != null;
   }
 
   /**
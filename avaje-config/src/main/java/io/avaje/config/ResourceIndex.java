@@ -0,0 +1,162 @@
+package io.avaje.config;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The indexes of the {@code application*} resources generated at build time by avaje-config-generator.
+ * <p>
+ * Each index only describes the resources of the jar or directory (code source) that contains
+ * it. A resource listed by an index is read directly from that code source, and a resource that
+ * is not listed is unknown and looked up via the class loader as normal. Only when every entry
+ * of the class path has an index (for example a single shaded jar) is an {@code application*}
+ * resource that is not listed known to not exist. The test resources ({@code application-test*})
+ * are never treated as absent as the test classes may not have been compiled with the generator.
+ * <p>
+ * Enabled via the system property {@code config.resource.index=true}.
+ */
+@NullMarked
+final class ResourceIndex {
+
+  static final String PATH = "META-INF/avaje-config/resources.idx";
+
+  private static final ResourceIndex NONE = new ResourceIndex(Map.of(), false);
+
+  private final Map<String, URL> located;
+  private final boolean complete;
+
+  /**
+   * Create with the location of the indexed resources.
+   *
+   * @param located  The indexed resources by name with the URL in the code source listing them
+   * @param complete True when all the class path entries have an index
+   */
+  ResourceIndex(Map<String, URL> located, boolean complete) {
+    this.located = located;
+    this.complete = complete;
+  }
+
+  /**
+   * Read the indexes visible to the class loaders (when enabled).
+   */
+  static ResourceIndex load(ClassLoader... classLoaders) {
+    if (!Boolean.getBoolean("config.resource.index")) {
+      return NONE;
+    }
+    final Set<URL> urls = new LinkedHashSet<>();
+    try {
+      for (ClassLoader classLoader : classLoaders) {
+        if (classLoader != null) {
+          final Enumeration<URL> resources = classLoader.getResources(PATH);
+          while (resources.hasMoreElements()) {
+            urls.add(resources.nextElement());
+          }
+        }
+      }
+      if (urls.isEmpty()) {
+        return NONE;
+      }
+      final Map<String, URL> located = new HashMap<>();
+      final Set<Path> indexedRoots = new HashSet<>();
+      for (URL url : urls) {
+        final String root = url.toString().substring(0, url.toString().length() - PATH.length());
+        for (String name : read(url)) {
+          located.putIfAbsent(name, new URL(root + name));
+        }
+        final Path rootPath = rootPath(root);
+        if (rootPath != null) {
+          indexedRoots.add(rootPath);
+        }
+      }
+      return new ResourceIndex(located, classPathIndexed(indexedRoots));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading " + PATH, e);
+    }
+  }
+
+  private static Set<String> read(URL url) throws IOException {
+    final Set<String> names = new LinkedHashSet<>();
+    try (InputStream is = url.openStream();
+         BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (!line.isEmpty() && !line.startsWith("#")) {
+          names.add(line);
+        }
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Return the path of the jar or directory of the code source (null when not a local file).
+   */
+  @Nullable
+  static Path rootPath(String root) {
+    String location = root;
+    if (location.startsWith("jar:") && location.endsWith("!/")) {
+      location = location.substring(4, location.length() - 2);
+    }
+    try {
+      final URI uri = new URI(location);
+      return "file".equals(uri.getScheme()) ? Path.of(uri).toAbsolutePath().normalize() : null;
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Return true if every (existing) entry of the class path has an index.
+   */
+  private static boolean classPathIndexed(Set<Path> indexedRoots) {
+    final String classPath = System.getProperty("java.class.path", "");
+    if (classPath.isEmpty() || System.getProperty("jdk.module.path") != null) {
+      return false;
+    }
+    for (String entry : classPath.split(File.pathSeparator)) {
+      final Path path = Path.of(entry).toAbsolutePath().normalize();
+      if (!entry.isEmpty() && Files.exists(path) && !indexedRoots.contains(path)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the URL of the resource in the code source whose index lists it (or null).
+   */
+  @Nullable
+  URL url(String resourcePath) {
+    return located.get(resourcePath);
+  }
+
+  /**
+   * Return true if the indexes show that the resource does not exist.
+   */
+  boolean absent(String resourcePath) {
+    return complete
+      && resourcePath.startsWith("application")
+      && !resourcePath.startsWith("application-test")
+      && !located.containsKey(resourcePath);
+  }
+}
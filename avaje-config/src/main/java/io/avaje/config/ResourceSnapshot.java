@@ -0,0 +1,119 @@
+package io.avaje.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The pre-parsed values of an {@code application*} resource written at build time by the
+ * {@code ConfigSnapshotWriter} of avaje-config-tools.
+ * <p>
+ * The snapshot of a resource is {@code META-INF/avaje-config/snapshot/<resource>.properties}
+ * in the same jar or directory as the resource, such that each jar has its own snapshots and
+ * only the snapshots of the resources being loaded are read. The first line holds the CRC of
+ * the resource content. A snapshot in a jar is used without reading the resource (the jar was
+ * built with both), while for a directory (for example during development) the resource is read
+ * and the snapshot is only used when the CRC matches, otherwise the resource is parsed as normal.
+ * The values are merged in the usual order and expressions are evaluated at runtime such that
+ * environment variables, system properties and files still override the snapshot values.
+ * <p>
+ * Enabled via the system property {@code config.resource.snapshot=true}.
+ */
+@NullMarked
+final class ResourceSnapshot {
+
+  static final String DIRECTORY = "META-INF/avaje-config/snapshot/";
+  static final String CRC_PREFIX = "#crc=";
+
+  private final boolean inJar;
+  private final long crc;
+  private final Map<String, String> values;
+
+  private ResourceSnapshot(boolean inJar, long crc, Map<String, String> values) {
+    this.inJar = inJar;
+    this.crc = crc;
+    this.values = values;
+  }
+
+  /**
+   * Return true if the snapshots are enabled.
+   */
+  static boolean enabled() {
+    return Boolean.getBoolean("config.resource.snapshot");
+  }
+
+  /**
+   * Return the snapshot in the jar or directory of the resource (null when there is none).
+   *
+   * @param resource     The URL of the resource
+   * @param resourcePath The path of the resource relative to its jar or directory
+   */
+  @Nullable
+  static ResourceSnapshot find(URL resource, String resourcePath) {
+    final String location = resource.toString();
+    if (!location.endsWith(resourcePath)) {
+      return null;
+    }
+    final String root = location.substring(0, location.length() - resourcePath.length());
+    try (InputStream is = new URL(root + DIRECTORY + resourcePath + ".properties").openStream()) {
+      return read(is, root.startsWith("jar:"));
+    } catch (IOException e) {
+      // no snapshot of the resource
+      return null;
+    }
+  }
+
+  /**
+   * Read the snapshot returning null when it does not start with the CRC of the resource.
+   */
+  @Nullable
+  static ResourceSnapshot read(InputStream is, boolean inJar) throws IOException {
+    final byte[] content = is.readAllBytes();
+    final String text = new String(content, StandardCharsets.ISO_8859_1);
+    final int end = text.indexOf('\n');
+    if (!text.startsWith(CRC_PREFIX) || end == -1) {
+      return null;
+    }
+    final long crc = Long.parseLong(text.substring(CRC_PREFIX.length(), end).trim(), 16);
+    final Properties properties = new Properties();
+    properties.load(new ByteArrayInputStream(content));
+    final Map<String, String> values = new HashMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      values.put(key, properties.getProperty(key));
+    }
+    return new ResourceSnapshot(inJar, crc, values);
+  }
+
+  /**
+   * Return true if the snapshot is in a jar and used without checking the resource content.
+   */
+  boolean inJar() {
+    return inJar;
+  }
+
+  /**
+   * Return true if the snapshot was written from the given resource content.
+   */
+  boolean matches(byte[] content) {
+    return crc == crc(content);
+  }
+
+  Map<String, String> values() {
+    return values;
+  }
+
+  static long crc(byte[] content) {
+    final CRC32 crc = new CRC32();
+    crc.update(content);
+    return crc.getValue();
+  }
+}
@@ -3,35 +3,38 @@ package io.avaje.config;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.LineNumberReader;
 import java.io.Reader;
 import java.io.UncheckedIOException;
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Stack;
-import java.util.StringJoiner;
 
 import org.jspecify.annotations.NullMarked;
 
 /**
  * Simple YAML parser for loading yaml based config.
+ * <p>
+ * A single pass scanner over the characters of the content where lines, keys and values
+ * are ranges of the buffer. Keys are built on a single StringBuilder (the current path)
+ * such that only the resulting keys and values are allocated.
+ * <p>
+ * Supports maps and scalar values (plain, quoted and multi-line).
  */
 @NullMarked
 final class YamlLoaderSimple implements YamlLoader {
 
   @Override
   public Map<String, String> load(Reader reader) {
-    return new Load().load(reader);
+    return new Load(reader).load();
   }
 
   @Override
   public Map<String, String> load(InputStream is) {
-    return new Load().load(is);
+    return load(new InputStreamReader(is, StandardCharsets.UTF_8));
   }
 
-  private static class Load {
+  private static final class Load {
     enum MultiLineTrim {
       Clip,
       Strip,
@@ -47,8 +50,21 @@ final class YamlLoaderSimple implements YamlLoader {
     }
 
     private final Map<String, String> keyValues = new LinkedHashMap<>();
-    private final Stack<Key> keyStack = new Stack<>();
-    private final List<String> multiLines = new ArrayList<>();
+    private final char[] buf;
+    private final int length;
+
+    /** The full key of the current path with the key stack as indents and path lengths. */
+    private final StringBuilder keyPath = new StringBuilder(64);
+    private int[] keyIndents = new int[16];
+    private int[] keyPathLengths = new int[16];
+    private int depth;
+
+    /** The lines of a multi-line value as ranges of the buffer. */
+    private int[] lineStarts = new int[16];
+    private int[] lineEnds = new int[16];
+    private int lineCount;
+
+    private final StringBuilder value = new StringBuilder();
 
     private State state = State.RequireKey;
     private MultiLineTrim multiLineTrim = MultiLineTrim.Clip;
@@ -56,149 +72,156 @@ final class YamlLoaderSimple implements YamlLoader {
     private int currentIndent;
     private int multiLineIndent;
 
-    private Map<String, String> load(InputStream is) {
-      return load(new InputStreamReader(is));
-    }
-
-    private Map<String, String> load(Reader reader) {
-      try (LineNumberReader lineReader = new LineNumberReader(reader)) {
-        String line;
-        do {
-          line = lineReader.readLine();
-          processLine(line);
-        } while (line != null);
-
-        return keyValues;
+    Load(Reader reader) {
+      try (reader) {
+        char[] content = new char[8192];
+        int size = 0;
+        int read;
+        while ((read = reader.read(content, size, content.length - size)) != -1) {
+          size += read;
+          if (size == content.length) {
+            content = Arrays.copyOf(content, content.length * 2);
+          }
+        }
+        this.buf = content;
+        this.length = size;
       } catch (IOException e) {
         throw new UncheckedIOException(e);
       }
     }
 
-    private void processLine(String line) {
-      if (line == null) {
-        checkFinalMultiLine();
-      } else {
-        currentLine++;
-        readIndent(line);
-        if (state == State.MultiLine) {
-          processMultiLine(line);
-        } else {
-          processNext(line);
+    private Map<String, String> load() {
+      int pos = 0;
+      while (pos < length) {
+        int end = pos;
+        while (end < length && buf[end] != '\n' && buf[end] != '\r') {
+          end++;
+        }
+        processLine(pos, end);
+        if (end + 1 < length && buf[end] == '\r' && buf[end + 1] == '\n') {
+          end++;
         }
+        pos = end + 1;
+      }
+      if (state == State.MultiLine) {
+        addKeyVal(multiLineValue());
       }
+      return keyValues;
     }
 
-    private void checkFinalMultiLine() {
+    private void processLine(int start, int end) {
+      currentLine++;
+      currentIndent = indent(start, end);
       if (state == State.MultiLine) {
-        addKeyVal(multiLineValue());
+        processMultiLine(start, end);
+      } else {
+        processNext(start, end);
       }
     }
 
-    private void processMultiLine(String line) {
+    private void processMultiLine(int start, int end) {
       if (multiLineIndent == 0) {
-        if (currentIndent == 0 && !line.trim().isEmpty()) {
-          multiLineEnd(line);
+        if (currentIndent == 0 && !isBlank(start, end)) {
+          multiLineEnd(start, end);
           return;
         }
         // first multiLine
         multiLineIndent = currentIndent;
-        multiLines.add(line);
-      } else if (currentIndent >= multiLineIndent || line.trim().isEmpty()) {
-        multiLines.add(line);
+        addLine(start, end);
+      } else if (currentIndent >= multiLineIndent || isBlank(start, end)) {
+        addLine(start, end);
       } else {
         // end of multiLine
-        multiLineEnd(line);
+        multiLineEnd(start, end);
       }
     }
 
-    private void multiLineEnd(String line) {
+    private void multiLineEnd(int start, int end) {
       addKeyVal(multiLineValue());
-      processNext(line);
+      processNext(start, end);
+    }
+
+    private void addLine(int start, int end) {
+      if (lineCount == lineStarts.length) {
+        lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        lineEnds = Arrays.copyOf(lineEnds, lineCount * 2);
+      }
+      lineStarts[lineCount] = start;
+      lineEnds[lineCount++] = end;
     }
 
     private String multiLineValue() {
-      if (multiLines.isEmpty()) {
+      if (lineCount == 0) {
         return "";
       }
       if (multiLineTrim != MultiLineTrim.Keep) {
-        multiLineTrimTrailing();
+        // trim trailing empty lines
+        while (lineCount > 0 && isBlank(lineStarts[lineCount - 1], lineEnds[lineCount - 1])) {
+          lineCount--;
+        }
       }
-      String join = (multiLineTrim == MultiLineTrim.Implicit) ? " " : "\n";
-      StringBuilder sb = new StringBuilder();
-      int lastIndex = multiLines.size() - 1;
+      final char join = (multiLineTrim == MultiLineTrim.Implicit) ? ' ' : '\n';
+      final boolean excludeLast = multiLineTrim == MultiLineTrim.Strip || multiLineTrim == MultiLineTrim.Implicit;
+      value.setLength(0);
+      final int lastIndex = lineCount - 1;
       for (int i = 0; i <= lastIndex; i++) {
-        String line = multiLines.get(i);
-        if (line.length() < multiLineIndent) {
+        final int lineLength = lineEnds[i] - lineStarts[i];
+        if (lineLength < multiLineIndent) {
           // empty line whitespace
-          sb.append("\n");
+          value.append('\n');
         } else {
-          line = line.substring(multiLineIndent);
-          if (i == lastIndex && (multiLineTrim == MultiLineTrim.Strip || multiLineTrim == MultiLineTrim.Implicit)) {
-            sb.append(line);
-          } else {
-            sb.append(line).append(join);
+          value.append(buf, lineStarts[i] + multiLineIndent, lineLength - multiLineIndent);
+          if (i != lastIndex || !excludeLast) {
+            value.append(join);
           }
         }
       }
       multiLineEnd();
-      return sb.toString();
+      return value.toString();
     }
 
-    private void multiLineTrimTrailing() {
-      for (int i = multiLines.size(); i-- > 0; ) {
-        if (!multiLines.get(i).trim().isEmpty()) {
-          break;
-        } else {
-          multiLines.remove(i);
-        }
+    private void processNext(int start, int end) {
+      if (newDocument(start, end)) {
+        return;
       }
-    }
-
-    void readIndent(String line) {
-      currentIndent = indent(line);
-    }
-
-    private void processNext(String line) {
-      if (newDocument(line) || ignoreLine(line)) {
+      final int trimmed = trimStart(start, end);
+      if (trimmed == end || buf[trimmed] == '#') {
+        // empty or comment line
         return;
       }
-
-      final int pos = line.indexOf(':');
+      final int pos = indexOf(':', start, end);
       if (pos == -1) {
         // value on another line
-        processNonKey(line);
+        processNonKey(start, end);
         return;
       }
       if (state == State.RequireTopKey && currentIndent > 0) {
-        throw new IllegalStateException("Require top level key at line:" + currentLine + " [" + line + "]");
+        throw new IllegalStateException("Require top level key at line:" + currentLine + " [" + line(start, end) + "]");
       }
 
       // must be a key - would expect explicit multiline otherwise
-      final Key key = new Key(currentIndent, trimKey(line.substring(0, pos)));
       popKeys(currentIndent);
-      keyStack.push(key);
+      pushKey(start, pos);
 
       // look at the remainder of the line
-      final String remaining = line.substring(pos + 1);
-      final String trimmedValue = remaining.trim();
-      if (trimmedValue.startsWith("|")) {
-        multilineStart(multiLineTrimMode(trimmedValue));
-
-      } else if (trimmedValue.isEmpty() || trimmedValue.startsWith("#")) {
+      final int valueStart = trimStart(pos + 1, end);
+      final int valueEnd = trimEnd(valueStart, end);
+      if (valueStart == valueEnd || buf[valueStart] == '#') {
         // empty or comment
         state = State.KeyOrValue;
+      } else if (buf[valueStart] == '|') {
+        multilineStart(multiLineTrimMode(valueStart, valueEnd));
       } else {
         // simple key value
-        addKeyVal(trimValue(remaining.trim()));
+        addKeyVal(scalar(valueStart, valueEnd));
       }
     }
 
-    private MultiLineTrim multiLineTrimMode(String trimmedValue) {
-      if (trimmedValue.length() == 1) {
+    private MultiLineTrim multiLineTrimMode(int start, int end) {
+      if (end - start == 1) {
         return MultiLineTrim.Clip;
       }
-      final char ch = trimmedValue.charAt(1);
-      switch (ch) {
+      switch (buf[start + 1]) {
         case '-':
           // the final line break and any trailing empty lines are excluded
           return MultiLineTrim.Strip;
@@ -212,27 +235,26 @@ final class YamlLoaderSimple implements YamlLoader {
     }
 
     private void addKeyVal(String value) {
-      keyValues.put(fullKey(), value);
-      keyStack.pop();
+      keyValues.put(keyPath.toString(), value);
+      popKey();
       state = State.RequireKey;
     }
 
-    private void processNonKey(String line) {
+    private void processNonKey(int start, int end) {
       if (state == State.RequireKey) {
         state = State.RequireTopKey;
         // drop this value line
         return;
       }
-      if (keyStack.isEmpty()) {
-        throw new IllegalStateException("Reading a value but no key at line: " + currentLine + " line[" + line + "]");
+      if (depth == 0) {
+        throw new IllegalStateException("Reading a value but no key at line: " + currentLine + " line[" + line(start, end) + "]");
       }
-      final int keyIndent = keyStack.peek().indent;
-      if (currentIndent <= keyIndent) {
-        throw new IllegalStateException("Value not indented enough for key " + fullKey() + " at line: " + currentLine + " line[" + line + "]");
+      if (currentIndent <= keyIndents[depth - 1]) {
+        throw new IllegalStateException("Value not indented enough for key " + keyPath + " at line: " + currentLine + " line[" + line(start, end) + "]");
       }
       multilineStart(MultiLineTrim.Implicit);
       multiLineIndent = currentIndent;
-      multiLines.add(line);
+      addLine(start, end);
     }
 
     private void multilineStart(MultiLineTrim trim) {
@@ -244,99 +266,113 @@ final class YamlLoaderSimple implements YamlLoader {
     private void multiLineEnd() {
       state = State.RequireKey;
       multiLineIndent = 0;
-      multiLines.clear();
+      lineCount = 0;
     }
 
-    private boolean newDocument(String line) {
-      if (line.startsWith("---")) {
-        keyStack.clear();
+    private boolean newDocument(int start, int end) {
+      if (end - start >= 3 && buf[start] == '-' && buf[start + 1] == '-' && buf[start + 2] == '-') {
+        depth = 0;
+        keyPath.setLength(0);
+        state = State.RequireKey;
         return true;
       }
       return false;
     }
 
-    private boolean ignoreLine(String line) {
-      final String trimmed = line.trim();
-      return trimmed.isEmpty() || trimmed.startsWith("#");
+    /**
+     * Return the value with quotes or trailing comment removed.
+     */
+    private String scalar(int start, int end) {
+      final char first = buf[start];
+      if (first == '\'' || first == '"') {
+        final int close = lastIndexOf(first, start + 1, end);
+        return close == -1 ? new String(buf, start + 1, end - start - 1) : new String(buf, start + 1, close - start - 1);
+      }
+      final int commentPos = indexOf('#', start, end);
+      if (commentPos > -1) {
+        end = trimEnd(start, commentPos);
+      }
+      return new String(buf, start, end - start);
     }
 
-    private String trimValue(String value) {
-      if (value.startsWith("'")) {
-        return unquoteValue('\'', value);
+    private void pushKey(int start, int end) {
+      start = trimStart(start, end);
+      end = trimEnd(start, end);
+      if (end - start >= 2 && (buf[start] == '\'' || buf[start] == '"') && buf[end - 1] == buf[start]) {
+        start++;
+        end--;
       }
-      if (value.startsWith("\"")) {
-        return unquoteValue('"', value);
+      if (depth == keyIndents.length) {
+        keyIndents = Arrays.copyOf(keyIndents, depth * 2);
+        keyPathLengths = Arrays.copyOf(keyPathLengths, depth * 2);
       }
-      int commentPos = value.indexOf('#');
-      if (commentPos > -1) {
-        return value.substring(0, commentPos).trim();
+      keyIndents[depth] = currentIndent;
+      keyPathLengths[depth] = keyPath.length();
+      if (depth > 0) {
+        keyPath.append('.');
       }
-      return value;
+      keyPath.append(buf, start, end - start);
+      depth++;
     }
 
-    private String unquoteValue(char quoteChar, String value) {
-      final int pos = value.lastIndexOf(quoteChar);
-      return value.substring(1, pos);
+    private void popKey() {
+      depth--;
+      keyPath.setLength(keyPathLengths[depth]);
     }
 
-    private String fullKey() {
-      StringJoiner fullKey = new StringJoiner(".");
-      for (Key next : keyStack) {
-        fullKey.add(next.key());
+    private void popKeys(int indent) {
+      while (depth > 0 && keyIndents[depth - 1] >= indent) {
+        popKey();
       }
-      return fullKey.toString();
     }
 
-    private void popKeys(int indent) {
-      while (!keyStack.isEmpty()) {
-        if (keyStack.peek().indent() < indent) {
-          break;
-        } else {
-          keyStack.pop();
+    private int indent(int start, int end) {
+      for (int i = start; i < end; i++) {
+        if (!Character.isWhitespace(buf[i])) {
+          return i - start;
         }
       }
+      return 0;
     }
 
-    private String trimKey(String indentKey) {
-      return unquoteKey(indentKey.trim());
+    private boolean isBlank(int start, int end) {
+      return trimStart(start, end) == end;
     }
 
-    private String unquoteKey(String value) {
-      if (value.startsWith("'") && value.endsWith("'")) {
-        return value.substring(1, value.length() - 1);
+    private int trimStart(int start, int end) {
+      while (start < end && buf[start] <= ' ') {
+        start++;
       }
-      if (value.startsWith("\"") && value.endsWith("\"")) {
-        return value.substring(1, value.length() - 1);
+      return start;
+    }
+
+    private int trimEnd(int start, int end) {
+      while (end > start && buf[end - 1] <= ' ') {
+        end--;
       }
-      return value;
+      return end;
     }
 
-    private int indent(String line) {
-      final char[] chars = line.toCharArray();
-      for (int i = 0; i < chars.length; i++) {
-        if (!Character.isWhitespace(chars[i])) {
+    private int indexOf(char ch, int start, int end) {
+      for (int i = start; i < end; i++) {
+        if (buf[i] == ch) {
           return i;
         }
       }
-      return 0;
+      return -1;
     }
 
-    private static class Key {
-      private final int indent;
-      private final String key;
-
-      Key(int indent, String key) {
-        this.indent = indent;
-        this.key = key;
-      }
-
-      int indent() {
-        return indent;
+    private int lastIndexOf(char ch, int start, int end) {
+      for (int i = end - 1; i >= start; i--) {
+        if (buf[i] == ch) {
+          return i;
+        }
       }
+      return -1;
+    }
 
-      String key() {
-        return key;
-      }
+    private String line(int start, int end) {
+      return new String(buf, start, end - start);
     }
   }
 }
@@ -16,20 +16,19 @@ import org.yaml.snakeyaml.Yaml;
 @NullMarked
 final class YamlLoaderSnake implements YamlLoader {
 
-  private final Yaml yaml;
-
-  YamlLoaderSnake() {
-    this.yaml = new Yaml();
-  }
+  /**
+   * A Yaml instance per thread as it is not thread safe (resources can be parsed in parallel).
+   */
+  private final ThreadLocal<Yaml> yaml = ThreadLocal.withInitial(Yaml::new);
 
   @Override
   public Map<String, String> load(Reader reader) {
-    return load(yaml.loadAll(reader));
+    return load(yaml.get().loadAll(reader));
   }
 
   @Override
   public Map<String, String> load(InputStream is) {
-    return load(yaml.loadAll(is));
+    return load(yaml.get().loadAll(is));
   }
 
   @SuppressWarnings("unchecked")
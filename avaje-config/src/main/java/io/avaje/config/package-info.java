@@ -25,7 +25,13 @@
  * config will watch for modifications to the configuration files
  * and reload the configuration.
  * <p>
- * By default the files are checked every 60 seconds. We can
+ * By default the directories of the files are watched via the NIO
+ * WatchService such that changes are reloaded within milliseconds.
+ * Setting <code>config.watch.mode=poll</code> (or where the platform
+ * WatchService is itself polling based) the files are instead checked
+ * periodically as below.
+ * <p>
+ * When polling the files are checked every 10 seconds. We can
  * change this by setting the <code>config.watch.period</code>
  * (which is in seconds). For example setting
  * <code>config.watch.period=10</code> means the files are
@@ -0,0 +1,137 @@
+package io.avaje.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryConfigParserTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void supportedExtensions() {
+    var parser = new BinaryConfigParser();
+    assertThat(parser.supportedExtensions()).isEqualTo(new String[]{"bconf"});
+  }
+
+  @Test
+  void load_mapped() throws IOException {
+    // keys route.a, route.a.b, route.b, route.c with route.a and route.b sharing a value
+    byte[] content = bconf(new int[]{4, 5, 4, 6}, "route.a", "route.a.b", "route.b", "route.c", "shared", "", "unicode ü €");
+    Path file = Files.write(dir.resolve("routes.bconf"), content);
+
+    Map<String, String> map;
+    try (var is = new FileInputStream(file.toFile())) {
+      map = new BinaryConfigParser().load(is);
+    }
+    assertThat(map).hasSize(4);
+    assertThat(map.get("route.c")).isEqualTo("unicode ü €");
+    assertThat(map.get("route.a.b")).isEmpty();
+    assertThat(map.get("route.d")).isNull();
+    // repeated values are stored and decoded once
+    assertThat(map.get("route.a")).isSameAs(map.get("route.b"));
+    assertThat(map.keySet()).containsExactly("route.a", "route.a.b", "route.b", "route.c");
+
+
+    Configuration configuration = Configuration.builder().load(file.toFile()).build();
+    assertThat(configuration.get("route.a")).isEqualTo("shared");
+    assertThat(configuration.get("route.c")).isEqualTo("unicode ü €");
+  }
+
+  @Test
+  void load_inputStream_empty() throws IOException {
+    Map<String, String> map = new BinaryConfigParser().load(new ByteArrayInputStream(bconf(new int[0])));
+    assertThat(map).isEmpty();
+    assertThat(map.get("a")).isNull();
+  }
+
+  @Test
+  void load_reader_unsupported() {
+    assertThatThrownBy(() -> new BinaryConfigParser().load(new StringReader("a")))
+      .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  void write_expect_readByParser() throws IOException {
+    var out = new ByteArrayOutputStream();
+    BinaryConfigWriter.write(Map.of("b", "shared", "a", "shared", "c", "ü"), out);
+
+    ConfigParser parser = ConfigParser.forExtension("bconf").orElseThrow();
+    assertThat(parser).isInstanceOf(BinaryConfigParser.class);
+    Map<String, String> map = parser.load(new ByteArrayInputStream(out.toByteArray()));
+    assertThat(map).containsExactly(Map.entry("a", "shared"), Map.entry("b", "shared"), Map.entry("c", "ü"));
+    assertThat(out.toByteArray()).isEqualTo(bconf(new int[]{3, 3, 4}, "a", "b", "c", "shared", "ü"));
+  }
+
+  @Test
+  void forExtension() {
+    assertThat(ConfigParser.forExtension("yaml")).isPresent();
+    assertThat(ConfigParser.forExtension("properties")).isPresent();
+    assertThat(ConfigParser.forExtension("xml")).isEmpty();
+  }
+
+  @Test
+  void load_invalid() throws IOException {
+    var parser = new BinaryConfigParser();
+    assertThatThrownBy(() -> parser.load(new ByteArrayInputStream("a=b".getBytes())))
+      .isInstanceOf(IllegalArgumentException.class);
+
+    byte[] valid = bconf(new int[]{1}, "a", "b");
+    // truncated
+    assertThatThrownBy(() -> parser.load(new ByteArrayInputStream(valid, 0, valid.length - 1)))
+      .isInstanceOf(IllegalArgumentException.class);
+    // value id out of range
+    assertThatThrownBy(() -> parser.load(new ByteArrayInputStream(bconf(new int[]{2}, "a", "b"))))
+      .isInstanceOf(IllegalArgumentException.class);
+    // entry count beyond the content
+    byte[] count = valid.clone();
+    count[11] = 0x7F;
+    assertThatThrownBy(() -> parser.load(new ByteArrayInputStream(count)))
+      .isInstanceOf(IllegalArgumentException.class);
+    // negative string count
+    byte[] negative = valid.clone();
+    negative[12] = (byte) 0xFF;
+    assertThatThrownBy(() -> parser.load(new ByteArrayInputStream(negative)))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Return the binary content with the string table (keys first in sorted order) and the value id of each key.
+   */
+  private static byte[] bconf(int[] valueIds, String... strings) throws IOException {
+    var data = new ByteArrayOutputStream();
+    var offsets = new int[strings.length + 1];
+    for (int i = 0; i < strings.length; i++) {
+      data.write(strings[i].getBytes(StandardCharsets.UTF_8));
+      offsets[i + 1] = data.size();
+    }
+    var out = new ByteArrayOutputStream();
+    var dataOut = new DataOutputStream(out);
+    dataOut.writeInt(BinaryConfigParser.MAGIC);
+    dataOut.writeInt(BinaryConfigParser.VERSION);
+    dataOut.writeInt(valueIds.length);
+    dataOut.writeInt(strings.length);
+    for (int valueId : valueIds) {
+      dataOut.writeInt(valueId);
+    }
+    for (int offset : offsets) {
+      dataOut.writeInt(offset);
+    }
+    data.writeTo(dataOut);
+    return out.toByteArray();
+  }
+}
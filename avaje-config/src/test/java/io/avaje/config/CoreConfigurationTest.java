@@ -6,11 +6,22 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.StringReader;
+import java.net.URI;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -108,6 +119,554 @@ class CoreConfigurationTest {
     assertThat(foo.getOptional("a")).isEmpty();
   }
 
+  @Test
+  void snapshot_version() {
+    CoreConfiguration base = createSample();
+    long version = base.version();
+    Configuration snapshot = base.snapshot();
+    assertThat(snapshot.version()).isEqualTo(version);
+
+    base.eventBuilder("change")
+      .put("foo.bar", "43")
+      .put("foo.t", "false")
+      .publish();
+
+    assertThat(base.version()).isEqualTo(version + 1);
+    assertThat(base.getInt("foo.bar")).isEqualTo(43);
+    assertThat(base.getBool("foo.t")).isFalse();
+    // snapshot unchanged
+    assertThat(snapshot.version()).isEqualTo(version);
+    assertThat(snapshot.getInt("foo.bar")).isEqualTo(42);
+    assertThat(snapshot.getBool("foo.t")).isTrue();
+
+    // no actual change so no new version
+    base.setProperty("foo.bar", "43");
+    assertThat(base.version()).isEqualTo(version + 1);
+  }
+
+  @Test
+  void publish_whenApplyFails_expect_failureThrownToPublishers() throws Exception {
+    // entries that fail when changes are applied
+    CoreConfiguration base = new CoreConfiguration(basicProperties().snapshot());
+    assertThatThrownBy(() -> base.setProperty("foo.bar", "43"))
+      .isInstanceOf(IllegalStateException.class);
+
+    // concurrent publishers each complete with the failure rather than waiting forever
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        final int value = i;
+        futures.add(executor.submit(() -> base.setProperty("foo.bar", String.valueOf(value))));
+      }
+      for (var future : futures) {
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+          .hasCauseInstanceOf(IllegalStateException.class);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(base.getInt("foo.bar")).isEqualTo(42);
+  }
+
+  @Test
+  void snapshot_readOnly_detached() throws InterruptedException {
+    CoreConfiguration base = createSample();
+    Configuration snapshot = base.snapshot();
+
+    // runtime resolved defaults are not shared in either direction
+    assertThat(snapshot.get("snapshot.default", "s")).isEqualTo("s");
+    assertThat(base.get("snapshot.default", "b")).isEqualTo("b");
+    assertThat(snapshot.get("snapshot.default", "other")).isEqualTo("s");
+
+    assertThatThrownBy(() -> snapshot.setProperty("foo.bar", "44"))
+      .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> snapshot.forPath("foo").clearProperty("bar"))
+      .isInstanceOf(IllegalStateException.class);
+    assertThat(snapshot.getInt("foo.bar")).isEqualTo(42);
+
+    // closing the snapshot does not close the live configuration
+    snapshot.close();
+    CountDownLatch latch = new CountDownLatch(2);
+    base.schedule(0, 10, latch::countDown);
+    assertTrue(latch.await(2, TimeUnit.SECONDS));
+    base.close();
+  }
+
+  @Test
+  void keys_withPathPrefix() {
+    CoreConfiguration base = createSample();
+    assertThat(base.keys("foo")).containsExactly("foo.bar", "foo.f", "foo.t");
+    assertThat(base.keys("fo")).isEmpty();
+    assertThat(base.keys("a")).containsExactly("a");
+
+    base.eventBuilder("change")
+      .put("foo", "top")
+      .put("foo.new", "n")
+      .put("foot.not", "x")
+      .remove("foo.bar")
+      .publish();
+
+    assertThat(base.keys("foo")).containsExactly("foo", "foo.f", "foo.new", "foo.t");
+    Configuration foo = base.forPath("foo");
+    assertThat(foo.keys()).containsExactlyInAnyOrder("", "f", "new", "t");
+  }
+
+  @Test
+  void forPath_liveView() {
+    CoreConfiguration base = createSample();
+    Configuration foo = base.forPath("foo");
+    assertThat(base.forPath("foo")).isSameAs(foo);
+
+    List<ModificationEvent> events = new ArrayList<>();
+    foo.onChange(events::add, "bar");
+    AtomicReference<String> barValue = new AtomicReference<>();
+    foo.onChange("bar", barValue::set);
+
+    base.setProperty("foo.bar", "43");
+    base.setProperty("foo.other", "x");
+    base.setProperty("a", "2");
+    assertThat(foo.getInt("bar")).isEqualTo(43);
+    assertThat(foo.get("other")).isEqualTo("x");
+    assertThat(foo.keys()).containsExactlyInAnyOrder("bar", "f", "other", "t");
+    assertThat(barValue.get()).isEqualTo("43");
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).modifiedKeys()).containsExactly("bar");
+    assertThat(events.get(0).configuration()).isSameAs(foo);
+
+    // modify via the view
+    foo.setProperty("bar", "44");
+    assertThat(base.getInt("foo.bar")).isEqualTo(44);
+    assertThat(barValue.get()).isEqualTo("44");
+    foo.clearProperty("other");
+    assertThat(base.getOptional("foo.other")).isEmpty();
+    assertThat(events).hasSize(2);
+  }
+
+  @Test
+  void expressions_dependentsReEvaluated() {
+    Properties properties = new Properties();
+    properties.setProperty("db.host", "localhost");
+    properties.setProperty("db.port", "5432");
+    properties.setProperty("db.url", "jdbc:postgresql://${db.host}:${db.port}/app");
+    properties.setProperty("db.label", "url=${db.url}");
+    properties.setProperty("other", "x");
+    CoreMap entries = CoreExpressionEval.evalFor(CoreEntry.newMap(properties, "test"));
+    CoreConfiguration base = new CoreConfiguration(entries);
+    assertThat(base.get("db.url")).isEqualTo("jdbc:postgresql://localhost:5432/app");
+    // db.host, db.port and db.url are referenced
+    assertThat(entries.dependentsSize()).isEqualTo(3);
+
+    List<Set<String>> modified = new ArrayList<>();
+    base.onChange(event -> modified.add(event.modifiedKeys()));
+
+    base.setProperty("db.host", "prod");
+    assertThat(base.get("db.url")).isEqualTo("jdbc:postgresql://prod:5432/app");
+    assertThat(base.get("db.label")).isEqualTo("url=jdbc:postgresql://prod:5432/app");
+    assertThat(modified).hasSize(1);
+    assertThat(modified.get(0)).containsExactlyInAnyOrder("db.host", "db.url", "db.label");
+
+    base.setProperty("other", "y");
+    assertThat(modified.get(1)).containsExactly("other");
+
+    // replaced by a literal value, no longer a dependent
+    base.setProperty("db.url", "jdbc:h2:mem");
+    base.setProperty("db.host", "other");
+    assertThat(base.get("db.url")).isEqualTo("jdbc:h2:mem");
+    assertThat(base.get("db.label")).isEqualTo("url=jdbc:h2:mem");
+    assertThat(entries.dependentsSize()).isEqualTo(1);
+
+    // expression set at runtime
+    base.setProperty("db.url", "jdbc:${db.host}");
+    base.setProperty("db.host", "again");
+    assertThat(base.get("db.url")).isEqualTo("jdbc:again");
+    assertThat(entries.dependentsSize()).isEqualTo(2);
+
+    // removed, no longer references db.url
+    base.clearProperty("db.label");
+    assertThat(entries.dependentsSize()).isEqualTo(1);
+  }
+
+  @Test
+  void publish_concurrent() throws Exception {
+    CoreConfiguration base = createSample();
+    Set<String> notifiedKeys = ConcurrentHashMap.newKeySet();
+    base.onChange(event -> notifiedKeys.addAll(event.modifiedKeys()));
+
+    int threadCount = 8;
+    AtomicInteger notVisible = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      String key = "concurrent." + t;
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+          for (int i = 0; i < 200; i++) {
+            base.setProperty(key, String.valueOf(i));
+            // changes are visible when setProperty returns
+            if (base.getInt(key) != i) {
+              notVisible.incrementAndGet();
+            }
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(notVisible.get()).isZero();
+    for (int t = 0; t < threadCount; t++) {
+      assertThat(base.getInt("concurrent." + t)).isEqualTo(199);
+      assertThat(notifiedKeys).contains("concurrent." + t);
+    }
+    assertThat(base.version()).isLessThanOrEqualTo(threadCount * 200);
+  }
+
+  @Test
+  void publish_notBlockedBySlowListener() throws Exception {
+    CoreConfiguration base = createSample();
+    CountDownLatch inListener = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    base.onChange(event -> {
+      inListener.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "slow");
+
+    Thread slow = new Thread(() -> base.setProperty("slow", "1"));
+    slow.start();
+    assertThat(inListener.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // not blocked by the slow listener and the change is visible
+    base.setProperty("fast", "1");
+    assertThat(base.get("fast")).isEqualTo("1");
+
+    release.countDown();
+    slow.join();
+  }
+
+  @Test
+  void onChange_coalesceWindow() throws Exception {
+    CoreConfiguration base = createSample();
+    List<ModificationEvent> events = new CopyOnWriteArrayList<>();
+    Semaphore delivered = new Semaphore(0);
+    base.onChange(event -> {
+      events.add(event);
+      delivered.release();
+    }, Duration.ofMillis(200), "c.one", "c.two", "c.three");
+
+    base.setProperty("c.one", "1");
+    base.setProperty("c.two", "2");
+    base.setProperty("not.interested", "x");
+    base.eventBuilder("bulk").put("c.three", "3").put("c.one", "11").publish();
+    assertThat(events).isEmpty();
+    assertThat(delivered.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+
+    // a later change starts a new window, any extra event of the first window is delivered before it
+    base.setProperty("c.two", "22");
+    assertThat(delivered.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(events).hasSize(2);
+    ModificationEvent event = events.get(0);
+    assertThat(event.modifiedKeys()).containsExactly("c.one", "c.two", "c.three");
+    assertThat(event.name()).isEqualTo("SetProperty,bulk");
+    assertThat(event.configuration().get("c.one")).isEqualTo("11");
+    assertThat(events.get(1).modifiedKeys()).containsExactly("c.two");
+    assertThat(events.get(1).name()).isEqualTo("SetProperty");
+  }
+
+  @Test
+  void onChange_coalesceWindow_afterClose_expect_deliveredWithoutWindow() {
+    CoreConfiguration base = createSample();
+    List<ModificationEvent> events = new ArrayList<>();
+    base.onChange(events::add, Duration.ofMinutes(1), "c.one");
+    base.close();
+
+    base.setProperty("c.one", "1");
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).modifiedKeys()).containsExactly("c.one");
+  }
+
+  @Test
+  void onChange_prefixKeys() {
+    CoreConfiguration base = createSample();
+    List<String> calls = new ArrayList<>();
+    base.onChange(event -> calls.add("prefix" + event.modifiedKeys()), "log.level.*");
+    base.onChange(event -> calls.add("exact"), "log.level.com.foo");
+    base.onChange(event -> calls.add("all"));
+    base.forPath("log").onChange(event -> calls.add("view" + event.modifiedKeys()));
+
+    base.setProperty("log.level.com.foo", "DEBUG");
+    assertThat(calls).containsExactly("prefix[log.level.com.foo]", "exact", "all", "view[level.com.foo]");
+
+    calls.clear();
+    base.setProperty("log.other", "x");
+    assertThat(calls).containsExactly("all", "view[other]");
+
+    calls.clear();
+    base.setProperty("logger", "x");
+    assertThat(calls).containsExactly("all");
+  }
+
+  @Test
+  void asyncEvents_orderedPerListener_slowListenerIsolated() throws Exception {
+    CoreConfiguration base = (CoreConfiguration) Configuration.builder()
+      .put("config.events.async", "true")
+      .put("config.events.async.timeoutMillis", "50")
+      .build();
+
+    CountDownLatch release = new CountDownLatch(1);
+    base.onChange(event -> {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "async.key");
+
+    List<String> values = new CopyOnWriteArrayList<>();
+    CountDownLatch received = new CountDownLatch(100);
+    base.onChange(event -> {
+      values.add(event.configuration().get("async.key"));
+      received.countDown();
+    }, "async.key");
+
+    for (int i = 0; i < 100; i++) {
+      base.eventBuilder("test").put("async.key", String.valueOf(i)).publish();
+    }
+    // not delayed by the blocked listener
+    assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(values).hasSize(100);
+    assertThat(values.get(99)).isEqualTo("99");
+
+    release.countDown();
+  }
+
+  @Test
+  void asyncEventRunner_overflow_dropNewest() throws Exception {
+    var runner = new CoreAsyncEventRunner(new DefaultConfigurationLog(), 2, 60_000, CoreAsyncEventRunner.Overflow.DROP_NEWEST);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    List<Integer> delivered = new CopyOnWriteArrayList<>();
+    CountDownLatch deliveredLatch = new CountDownLatch(2);
+    Object listener = new Object();
+    runner.deliver(listener, () -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    // the listener is blocked so the mailbox holds 2 with the other 2 discarded
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    for (int i = 0; i < 4; i++) {
+      final int value = i;
+      runner.deliver(listener, () -> {
+        delivered.add(value);
+        deliveredLatch.countDown();
+      });
+    }
+    assertThat(runner.dropped()).isEqualTo(2);
+    release.countDown();
+    assertThat(deliveredLatch.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(delivered).containsExactly(0, 1);
+    assertThat(runner.dropped()).isEqualTo(2);
+    assertThat(runner.overruns()).isZero();
+    runner.close();
+  }
+
+  @Test
+  void asyncEventRunner_block_publishFromOwnListener_expect_runInline() throws Exception {
+    var runner = new CoreAsyncEventRunner(new DefaultConfigurationLog(), 1, 60_000, CoreAsyncEventRunner.Overflow.BLOCK);
+    List<String> delivered = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(1);
+    Object listener = new Object();
+    runner.deliver(listener, () -> {
+      // fills its own mailbox, the next would block this (the only draining) thread forever
+      runner.deliver(listener, () -> {
+        delivered.add("queued");
+        done.countDown();
+      });
+      runner.deliver(listener, () -> delivered.add("inline"));
+      delivered.add("first");
+    });
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(delivered).containsExactly("inline", "first", "queued");
+    assertThat(runner.dropped()).isZero();
+    runner.close();
+  }
+
+  @Test
+  void asyncEventRunner_monitor_reportsRunningOverrun_andDiscardsAfterClose() throws Exception {
+    var runner = new CoreAsyncEventRunner(new DefaultConfigurationLog(), 10, 10, CoreAsyncEventRunner.Overflow.DROP_OLDEST);
+    var scheduler = new CoreScheduler(new DefaultConfigurationLog(), 0);
+    runner.monitor(scheduler);
+    CountDownLatch release = new CountDownLatch(1);
+    Object listener = new Object();
+    runner.deliver(listener, () -> {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    // reported while the notification is still running
+    for (int i = 0; i < 500 && runner.overruns() == 0; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(runner.overruns()).isEqualTo(1);
+    release.countDown();
+    scheduler.close();
+
+    runner.close();
+    runner.deliver(new Object(), () -> {});
+  }
+
+  @Test
+  void schedule_slowTaskDoesNotDelayOthers_andClose() throws Exception {
+    CoreConfiguration base = createSample();
+    CountDownLatch slowStarted = new CountDownLatch(1);
+    CountDownLatch slowInterrupted = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    base.schedule(0, 10, () -> {
+      slowStarted.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        slowInterrupted.countDown();
+      }
+    });
+    assertThat(slowStarted.await(5, TimeUnit.SECONDS)).isTrue();
+    CountDownLatch fast = new CountDownLatch(3);
+    base.schedule(0, 10, () -> {
+      fast.countDown();
+      throw new Error("does not stop the scheduler");
+    });
+    // runs while the slow task is blocked, with the slow task due (and skipped) in the meantime
+    assertThat(fast.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(base.scheduleOverruns()).isGreaterThan(0);
+
+    base.close();
+    // the running task is interrupted and no further tasks are accepted
+    assertThat(slowInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThatThrownBy(() -> base.schedule(0, 10, () -> {})).isInstanceOf(IllegalStateException.class);
+    release.countDown();
+  }
+
+  @Test
+  void schedule_invalidPeriod() {
+    CoreConfiguration base = createSample();
+    assertThatThrownBy(() -> base.schedule(0, 0, () -> {})).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> base.schedule(0, -1, () -> {})).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> base.schedule(-1, 10, () -> {})).isInstanceOf(IllegalArgumentException.class);
+    base.close();
+  }
+
+  @Test
+  void scheduler_jitter_overruns() throws Exception {
+    CoreScheduler scheduler = new CoreScheduler(new DefaultConfigurationLog(), 0.1);
+    for (int i = 0; i < 100; i++) {
+      assertThat(scheduler.jitter(1000)).isBetween(900L, 1100L);
+    }
+    assertThat(new CoreScheduler(new DefaultConfigurationLog(), 0).jitter(1000)).isEqualTo(1000);
+
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    scheduler.schedule(0, 5, () -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    // triggered after the blocked task was next due (at most 5.5 millis later) on the same trigger thread
+    CountDownLatch later = new CountDownLatch(1);
+    assertThat(scheduler.scheduleOnce(50, later::countDown)).isTrue();
+    assertThat(later.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(scheduler.overruns()).isGreaterThan(0);
+    release.countDown();
+    scheduler.close();
+  }
+
+  @Test
+  void layers_registeredEmpty_keepsLoadOrder() {
+    CoreLayers layers = new CoreLayers();
+    // empty at initial load
+    layers.register("file:empty");
+    layers.put("file:later", "a", "1");
+    CoreMap entries = CoreEntry.newMap();
+    entries.put("a", "1", "file:later");
+    CoreConfiguration conf = new CoreConfiguration(new CoreComponents(), entries, layers);
+    assertThat(layers.names()).containsExactly("file:empty", "file:later", CoreLayers.RUNTIME);
+
+    // reload of the initially empty file is below the later loaded file
+    conf.eventBuilder("reload").layer("file:empty").put("a", "0").put("b", "0").publish();
+    assertThat(conf.get("a")).isEqualTo("1");
+    assertThat(conf.get("b")).isEqualTo("0");
+    assertThat(layers.names()).containsExactly("file:empty", "file:later", CoreLayers.RUNTIME);
+  }
+
+  @Test
+  void layers_precedenceAndFallback() {
+    CoreLayers layers = new CoreLayers();
+    layers.put("file:base", "a", "1");
+    layers.put("file:base", "b", "1");
+    layers.put("file:override", "a", "2");
+    CoreMap entries = CoreEntry.newMap();
+    entries.put("a", "2", "file:override");
+    entries.put("b", "1", "file:base");
+    CoreConfiguration conf = new CoreConfiguration(new CoreComponents(), entries, layers);
+    List<Set<String>> events = new ArrayList<>();
+    conf.onChange(event -> events.add(event.modifiedKeys()));
+
+    // reload of the lower layer does not clobber the higher layer
+    conf.eventBuilder("reload").layer("file:base").put("a", "10").put("b", "10").publish();
+    assertThat(conf.get("a")).isEqualTo("2");
+    assertThat(conf.get("b")).isEqualTo("10");
+    assertThat(events).containsExactly(Set.of("b"));
+
+    // removal falls back to the lower layer
+    conf.eventBuilder("reload").layer("file:override").remove("a").publish();
+    assertThat(conf.get("a")).isEqualTo("10");
+
+    // a layer added later has precedence over the loaded layers
+    conf.eventBuilder("remote").layer("remote").put("a", "r").publish();
+    assertThat(conf.get("a")).isEqualTo("r");
+    conf.eventBuilder("remote").layer("remote").remove("a").publish();
+    assertThat(conf.get("a")).isEqualTo("10");
+
+    // values set directly override all the layers
+    conf.setProperty("b", "runtime");
+    conf.eventBuilder("reload").layer("file:base").put("b", "11").publish();
+    assertThat(conf.get("b")).isEqualTo("runtime");
+
+    // clearing a value set directly falls back to the layers
+    conf.clearProperty("b");
+    assertThat(conf.get("b")).isEqualTo("11");
+
+    // a value set directly equal to the current value still overrides the layers
+    conf.setProperty("a", "10");
+    conf.eventBuilder("reload").layer("file:base").put("a", "12").publish();
+    assertThat(conf.get("a")).isEqualTo("10");
+    conf.clearProperty("a");
+    assertThat(conf.get("a")).isEqualTo("12");
+    assertThat(layers.names()).containsExactly("file:base", "file:override", "remote", "runtime");
+
+    assertThatThrownBy(() -> conf.eventBuilder("x").put("c", "1").layer("late"))
+      .isInstanceOf(IllegalStateException.class);
+  }
+
   @Test
   void forPathUnknown_expect_fullPathInMessage() {
     CoreConfiguration base = createSample();
@@ -163,6 +722,23 @@ class CoreConfigurationTest {
     assertThat(CoreConfiguration.toEnvKey("BAR")).isEqualTo("BAR");
   }
 
+  @Test
+  void envIndex_lookup() {
+    CoreEnvIndex index = new CoreEnvIndex(Map.of("MY_FOO_BAR", "a", "my.other", "b", "PATHX", "c", "my_lower", "d", "Foo_Bar", "e"));
+    assertThat(index.lookup("my.foo.bar")).isEqualTo("a");
+    assertThat(index.lookup("My.Foo.Bar")).isEqualTo("a");
+    assertThat(index.lookup("MY_FOO_BAR")).isEqualTo("a");
+    assertThat(index.lookup("my.other")).isEqualTo("b");
+    assertThat(index.lookup("my.foo")).isNull();
+    assertThat(index.lookup("my.foo.bar.baz")).isNull();
+    assertThat(index.raw("my.foo.bar")).isNull();
+    assertThat(index.raw("PATHX")).isEqualTo("c");
+    // only the exact name or the env style (upper case) name match
+    assertThat(index.lookup("my.lower")).isNull();
+    assertThat(index.lookup("foo.bar")).isNull();
+    assertThat(index.lookup("Foo_Bar")).isEqualTo("e");
+  }
+
   @Test
   void builder() {
     var fileSource = new File("./src/test/resources/yaml/minimal.yaml");
@@ -253,6 +829,97 @@ class CoreConfigurationTest {
     assertThat(data.getLong("doesNotExist", 99)).isEqualTo(99);
   }
 
+  @Test
+  void typedValues_cached_untilChanged() {
+    data.setProperty("typed.duration", "PT10S");
+    data.setProperty("typed.uri", "http://localhost:8080");
+    Duration duration = data.getDuration("typed.duration");
+    assertThat(duration).isEqualTo(Duration.ofSeconds(10));
+    assertThat(data.getDuration("typed.duration")).isSameAs(duration);
+    URI uri = data.getURI("typed.uri");
+    assertThat(data.getURI("typed.uri")).isSameAs(uri);
+
+    // cached per type such that alternating types do not evict each other
+    assertThat(data.getDuration("typed.duration")).isSameAs(duration);
+
+    // mapped values are not cached as they may be mutable
+    Function<String, StringBuilder> mapper = StringBuilder::new;
+    StringBuilder mapped = data.getAs("typed.uri", mapper);
+    assertThat(data.getAs("typed.uri", mapper)).isNotSameAs(mapped).hasToString(mapped.toString());
+
+    data.setProperty("typed.duration", "PT20S");
+    assertThat(data.getDuration("typed.duration")).isEqualTo(Duration.ofSeconds(20));
+    data.setProperty("foo.bar", "43");
+    assertThat(data.getInt("foo.bar")).isEqualTo(43);
+    assertThat(data.getLong("foo.bar", 7)).isEqualTo(43L);
+    data.clearProperty("typed.duration");
+    data.clearProperty("typed.uri");
+  }
+
+  @Test
+  void missingKeys_notAddedToEntries() {
+    CoreConfiguration base = createSample();
+    int size = base.size();
+    for (int i = 0; i < 100; i++) {
+      assertThat(base.getOptional("tenant." + i + ".limit")).isEmpty();
+    }
+    assertThat(base.getNullable("tenant.1.limit")).isNull();
+    // lookups with a default do not add entries either
+    assertThat(base.get("tenant.2.limit", "5")).isEqualTo("5");
+    assertThat(base.getBool("tenant.2.enabled", true)).isTrue();
+    assertThat(base.getInt("tenant.3.limit", 7)).isEqualTo(7);
+    assertThat(base.get("tenant.3.limit", "8")).isEqualTo("8");
+    assertThat(base.size()).isEqualTo(size);
+    assertThat(base.keys()).doesNotContain("tenant.2.limit", "tenant.2.enabled");
+    assertThat(base.keys()).doesNotContain("tenant.1.limit");
+    assertThat(base.asProperties()).doesNotContainKey("tenant.1.limit");
+
+    CoreMissCache missCache = base.missCache();
+    assertThat(missCache.size()).isEqualTo(101);
+    assertThat(missCache.hitCount()).isEqualTo(4);
+
+    // invalidated when published
+    base.setProperty("tenant.1.limit", "10");
+    assertThat(missCache.size()).isEqualTo(100);
+    assertThat(base.getInt("tenant.1.limit")).isEqualTo(10);
+    assertThat(base.size()).isEqualTo(size + 1);
+  }
+
+  @Test
+  void missCache_bounded() {
+    CoreMissCache cache = new CoreMissCache(3);
+    cache.put("a", CoreEntry.NULL_ENTRY);
+    cache.put("b", CoreEntry.NULL_ENTRY);
+    cache.put("c", CoreEntry.NULL_ENTRY);
+    cache.put("d", CoreEntry.NULL_ENTRY);
+    assertThat(cache.size()).isEqualTo(3);
+    assertThat(cache.evictionCount()).isEqualTo(1);
+    assertThat(cache.get("a")).isNull();
+    assertThat(cache.get("d")).isSameAs(CoreEntry.NULL_ENTRY);
+
+    // invalidated keys are removed from the eviction order
+    cache.invalidate(Set.of("c"));
+    for (int i = 0; i < 10; i++) {
+      cache.put("x", CoreEntry.NULL_ENTRY);
+      cache.invalidate(Set.of("x"));
+    }
+    assertThat(cache.size()).isEqualTo(2);
+    cache.put("e", CoreEntry.NULL_ENTRY);
+    assertThat(cache.evictionCount()).isEqualTo(1);
+    // least recently used evicted first
+    assertThat(cache.get("b")).isNotNull();
+    cache.put("f", CoreEntry.NULL_ENTRY);
+    assertThat(cache.get("d")).isNull();
+    assertThat(cache.get("b")).isNotNull();
+    assertThat(cache.get("e")).isNotNull();
+
+    // the first default value is kept
+    CoreEntry first = CoreEntry.of("1", "default");
+    assertThat(cache.put("b", first)).isSameAs(first);
+    assertThat(cache.put("b", CoreEntry.of("2", "default"))).isSameAs(first);
+    assertThat(cache.put("b", CoreEntry.NULL_ENTRY)).isSameAs(first);
+  }
+
   @Test
   void getDecimal_doesNotExist() {
     assertThrows(IllegalStateException.class, () -> data.getDecimal("myTestDecimal.doesNotExist"));
@@ -538,6 +1205,72 @@ class CoreConfigurationTest {
     assertThat(value.get()).isEqualTo(42);
   }
 
+  @Test
+  void liveProperties() {
+    Configuration.IntProperty intProp = data.intProperty("live.int", 7);
+    Configuration.LongProperty longProp = data.longProperty("foo.bar", 7);
+    Configuration.BoolProperty boolProp = data.boolProperty("live.bool", false);
+    Configuration.DurationProperty durationProp = data.durationProperty("live.duration", Duration.ofSeconds(5));
+
+    assertThat(intProp.key()).isEqualTo("live.int");
+    assertThat(intProp.get()).isEqualTo(7);
+    assertThat(longProp.get()).isEqualTo(42L);
+    assertThat(boolProp.get()).isFalse();
+    assertThat(durationProp.get()).isEqualTo(Duration.ofSeconds(5));
+
+    data.eventBuilder("live")
+      .put("live.int", "9")
+      .put("foo.bar", "43")
+      .put("live.bool", "true")
+      .put("live.duration", "PT1M")
+      .publish();
+
+    assertThat(intProp.get()).isEqualTo(9);
+    assertThat(longProp.get()).isEqualTo(43L);
+    assertThat(boolProp.get()).isTrue();
+    assertThat(durationProp.get()).isEqualTo(Duration.ofMinutes(1));
+
+    // invalid value keeps the existing value
+    data.setProperty("live.int", "notAnInt");
+    assertThat(intProp.get()).isEqualTo(9);
+
+    // removed reverts to the default value
+    data.clearProperty("live.int");
+    data.clearProperty("live.bool");
+    assertThat(intProp.get()).isEqualTo(7);
+    assertThat(boolProp.get()).isFalse();
+    data.clearProperty("live.duration");
+  }
+
+  @Test
+  void liveProperties_samePropertyForKeyTypeAndDefault() {
+    Configuration.IntProperty intProp = data.intProperty("live.cached", 7);
+    assertThat(data.intProperty("live.cached", 7)).isSameAs(intProp);
+    assertThat(data.forPath("live").intProperty("cached", 7)).isSameAs(intProp);
+    assertThat(data.intProperty("live.cached", 8)).isNotSameAs(intProp);
+    assertThat(data.longProperty("live.cached", 7)).isNotSameAs(intProp);
+  }
+
+  @Test
+  void liveProperties_registeredConcurrentlyWithPublish_expect_latestValue() throws Exception {
+    CoreConfiguration config = createSample();
+    Thread publisher = new Thread(() -> {
+      for (int i = 1; i <= 2000; i++) {
+        config.setProperty("live.concurrent", String.valueOf(i));
+      }
+    });
+    publisher.start();
+    List<Configuration.IntProperty> props = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      // distinct default values so each is a new registration
+      props.add(config.intProperty("live.concurrent", -i));
+    }
+    publisher.join();
+    for (Configuration.IntProperty prop : props) {
+      assertThat(prop.get()).isEqualTo(2000);
+    }
+  }
+
   @Test
   void onChangeBool() {
     final var value = new AtomicBoolean(false);
@@ -105,6 +105,42 @@ class CoreExpressionEvalTest {
     assertThat(exprEval.eval("${one}${two}${one}")).isEqualTo("121");
   }
 
+  @Test
+  void eval_noExpressions_returnsSameInstance() {
+    String plain = new String("no.expressions.here");
+    assertThat(eval(plain)).isSameAs(plain);
+  }
+
+  @Test
+  void eval_unresolved_defaultNotCarriedToNextExpression() {
+    assertThat(eval("${one:num1}-${notDefined}")).isEqualTo("num1-${notDefined}");
+    assertThat(eval("${notClosed")).isEqualTo("${notClosed");
+    assertThat(eval("a${one:x}b${two")).isEqualTo("axb${two");
+  }
+
+  @Test
+  void template_cached() {
+    CoreEntry.CoreMap source = CoreEntry.newMap();
+    source.put("one", "1", "");
+    final CoreExpressionEval exprEval = new CoreExpressionEval(source);
+
+    assertThat(CoreExpressionEval.Template.of("a${one}b")).isSameAs(CoreExpressionEval.Template.of("a${one}b"));
+    assertThat(exprEval.eval("a${one}b")).isEqualTo("a1b");
+    source.put("one", "2", "");
+    assertThat(exprEval.eval("a${one}b")).isEqualTo("a2b");
+  }
+
+  @Test
+  void template_cache_boundedLeastRecentlyUsed() {
+    final CoreExpressionEval.Template used = CoreExpressionEval.Template.of("lru${one}");
+    for (int i = 0; i < 5000; i++) {
+      CoreExpressionEval.Template.of("lru${one}" + i);
+      // the frequently used template is not evicted
+      assertThat(CoreExpressionEval.Template.of("lru${one}")).isSameAs(used);
+    }
+    assertThat(CoreExpressionEval.Template.cacheSize()).isLessThanOrEqualTo(2048);
+  }
+
   private String eval(String key) {
     return new CoreExpressionEval(CoreEntry.newMap()).eval(key);
   }
@@ -0,0 +1,71 @@
+package io.avaje.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoreHashTrieTest {
+
+  @Test
+  void putGetRemove_sameAsHashMap() {
+    Random random = new Random(42);
+    Map<String, CoreEntry> expected = new HashMap<>();
+    CoreHashTrie trie = CoreHashTrie.EMPTY;
+    for (int i = 0; i < 20_000; i++) {
+      String key = "key." + random.nextInt(5_000);
+      if (random.nextInt(4) == 0) {
+        expected.remove(key);
+        trie = trie.remove(key);
+      } else {
+        CoreEntry entry = CoreEntry.of("v" + i, "test");
+        expected.put(key, entry);
+        trie = trie.put(key, entry);
+      }
+    }
+    assertThat(trie.size()).isEqualTo(expected.size());
+    Map<String, CoreEntry> actual = new HashMap<>();
+    trie.forEach(actual::put);
+    assertThat(actual).isEqualTo(expected);
+    for (int i = 0; i < 5_000; i++) {
+      assertThat(trie.get("key." + i)).isSameAs(expected.get("key." + i));
+    }
+  }
+
+  @Test
+  void persistent_previousVersionUnchanged() {
+    CoreEntry a = CoreEntry.of("a", "test");
+    CoreHashTrie first = CoreHashTrie.EMPTY.put("a", a);
+    CoreHashTrie second = first.put("b", CoreEntry.of("b", "test")).remove("a");
+
+    assertThat(first.size()).isEqualTo(1);
+    assertThat(first.get("a")).isSameAs(a);
+    assertThat(first.containsKey("b")).isFalse();
+    assertThat(second.size()).isEqualTo(1);
+    assertThat(second.containsKey("a")).isFalse();
+    assertThat(first.put("a", a)).isSameAs(first);
+    assertThat(first.remove("notThere")).isSameAs(first);
+  }
+
+  @Test
+  void hashCollisions() {
+    // "Aa" and "BB" have the same hashCode
+    CoreEntry aa = CoreEntry.of("1", "test");
+    CoreEntry bb = CoreEntry.of("2", "test");
+    CoreHashTrie trie = CoreHashTrie.EMPTY.put("Aa", aa).put("BB", bb).put("AaAa", aa).put("BBBB", bb).put("AaBB", aa);
+
+    assertThat(trie.size()).isEqualTo(5);
+    assertThat(trie.get("Aa")).isSameAs(aa);
+    assertThat(trie.get("BB")).isSameAs(bb);
+    assertThat(trie.get("BBAa")).isNull();
+
+    CoreHashTrie removed = trie.remove("Aa").remove("AaBB");
+    assertThat(removed.size()).isEqualTo(3);
+    assertThat(removed.get("Aa")).isNull();
+    assertThat(removed.get("BB")).isSameAs(bb);
+    assertThat(removed.remove("BB").remove("AaAa").remove("BBBB").size()).isZero();
+  }
+}
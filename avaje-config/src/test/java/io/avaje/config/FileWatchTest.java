@@ -2,16 +2,25 @@ package io.avaje.config;
 
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
@@ -136,6 +145,182 @@ class FileWatchTest {
     assertThat(config.get("one")).isEqualTo("a");
   }
 
+  @Test
+  void test_check_whenSameContent_expect_noReload_andOnlyDiffPublished() throws Exception {
+    final Properties properties = new Properties();
+    properties.setProperty("config.watch.mode", "poll");
+    CoreConfiguration config = new CoreConfiguration(CoreEntry.newMap(properties, "newConfig"));
+    final FileWatch watch = fileWatch(config, files());
+    List<Set<String>> events = new ArrayList<>();
+    config.onChange(event -> events.add(event.modifiedKeys()));
+    try {
+      writeContent("one=a\ntwo=b");
+      // not initially loaded into the layers of this configuration so the first reload adds the keys
+      touchFiles(files());
+      watch.check();
+      assertThat(config.get("two")).isEqualTo("b");
+      events.clear();
+
+      // touched with the same content
+      touchFiles(files());
+      watch.check();
+      assertThat(events).isEmpty();
+
+      writeContent("one=a\nthree=c");
+      watch.check();
+      assertThat(events).hasSize(1);
+      assertThat(events.get(0)).containsExactlyInAnyOrder("two", "three");
+      assertThat(config.getOptional("two")).isEmpty();
+      assertThat(config.get("three")).isEqualTo("c");
+    } finally {
+      writeContent("one=a");
+      config.close();
+    }
+  }
+
+  @Test
+  void test_check_firstReload_expect_diffAgainstInitialLoad(@TempDir Path dir) throws Exception {
+    final Path file = Files.writeString(dir.resolve("app.properties"), "one=a\ntwo=b\nthree=c");
+    final String layer = "file:" + file.toFile().getPath();
+    final var entries = CoreEntry.newMap();
+    final var layers = new CoreLayers();
+    entries.put("config.watch.mode", "poll", "test");
+    for (String[] keyValue : new String[][]{{"one", "a"}, {"two", "b"}, {"three", "c"}}) {
+      entries.put(keyValue[0], keyValue[1], layer);
+      layers.put(layer, keyValue[0], keyValue[1]);
+    }
+    CoreConfiguration config = new CoreConfiguration(new CoreComponents(), entries, layers);
+    final FileWatch watch = fileWatch(config, List.of(file.toFile()));
+    List<Set<String>> events = new ArrayList<>();
+    config.onChange(event -> events.add(event.modifiedKeys()));
+    try {
+      sleep(20);
+      Files.writeString(file, "one=a\nthree=C");
+      watch.check();
+      assertThat(events).hasSize(1);
+      assertThat(events.get(0)).containsExactlyInAnyOrder("two", "three");
+      assertThat(config.getOptional("two")).isEmpty();
+      assertThat(config.get("three")).isEqualTo("C");
+    } finally {
+      config.close();
+    }
+  }
+
+  @Test
+  void test_check_firstChangeWithSameContent_expect_notParsed(@TempDir Path dir) throws Exception {
+    final Path file = Files.writeString(dir.resolve("app.counted"), "one=a");
+    final AtomicInteger parsed = new AtomicInteger();
+    final ConfigParser countingParser = new ConfigParser() {
+      @Override
+      public String[] supportedExtensions() {
+        return new String[]{"counted"};
+      }
+
+      @Override
+      public Map<String, String> load(Reader reader) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Map<String, String> load(InputStream is) {
+        parsed.incrementAndGet();
+        return new PropertiesParser().load(is);
+      }
+    };
+    final var entries = CoreEntry.newMap();
+    entries.put("config.watch.mode", "poll", "test");
+    CoreConfiguration config = new CoreConfiguration(new CoreComponents(), entries, new CoreLayers());
+    final Map<File, byte[]> loadedDigests = Map.of(file.toFile(), FileWatch.digest(Files.readAllBytes(file)));
+    final FileWatch watch = new FileWatch(config, List.of(file.toFile()), loadedDigests, List.of(), new Parsers(List.of(countingParser)));
+    try {
+      // touched only, the content is the same as initially loaded
+      assertThat(file.toFile().setLastModified(file.toFile().lastModified() + 2000)).isTrue();
+      watch.check();
+      assertThat(parsed).hasValue(0);
+
+      Files.writeString(file, "one=changed");
+      watch.check();
+      assertThat(parsed).hasValue(1);
+      assertThat(config.get("one")).isEqualTo("changed");
+    } finally {
+      config.close();
+    }
+  }
+
+  @Test
+  void test_watchService_whenFileWritten_expect_reloadedWithoutCheck() throws Exception {
+    final Properties properties = new Properties();
+    properties.setProperty("config.watch.mode", "watch");
+    properties.setProperty("config.watch.debounceMillis", "20");
+    CoreConfiguration config = new CoreConfiguration(CoreEntry.newMap(properties, "newConfig"));
+    final FileWatch watch = fileWatch(config, files());
+    config.setWatcher(watch);
+    try {
+      final Path directory = new File("./src/test/resources/watch").getAbsoluteFile().toPath().normalize();
+      assertThat(watch.watches(directory, Path.of("a.properties"))).isTrue();
+      assertThat(watch.watches(directory, Path.of("..data"))).isTrue();
+      assertThat(watch.watches(directory, Path.of("unrelated.txt"))).isFalse();
+      assertThat(watch.watches(directory.getParent(), Path.of("a.properties"))).isFalse();
+
+      writeContent("one=Watched");
+      for (int i = 0; i < 200 && config.getOptional("one").isEmpty(); i++) {
+        sleep(10);
+      }
+      assertThat(config.get("one")).isEqualTo("Watched");
+    } finally {
+      writeContent("one=a");
+      config.close();
+    }
+  }
+
+  @Test
+  void test_directory_whenDataSymlinkSwapped_expect_singleReload(@TempDir Path dir) throws Exception {
+    // Kubernetes ConfigMap volume layout
+    writeGeneration(dir, "..gen1", "one=a\ntwo=b", "two=B\nthree=c");
+    Files.createSymbolicLink(dir.resolve("..data"), Path.of("..gen1"));
+    Files.createSymbolicLink(dir.resolve("10-a.properties"), Path.of("..data/10-a.properties"));
+    Files.createSymbolicLink(dir.resolve("20-b.properties"), Path.of("..data/20-b.properties"));
+
+    final var directory = new ConfigDirectory(dir, new Parsers(Collections.emptyList()));
+    final var entries = CoreEntry.newMap();
+    final var layers = new CoreLayers();
+    entries.put("config.watch.mode", "poll", "test");
+    directory.load().forEach((key, value) -> {
+      entries.put(key, value, directory.layerName());
+      layers.put(directory.layerName(), key, value);
+    });
+    CoreConfiguration config = new CoreConfiguration(new CoreComponents(), entries, layers);
+    assertThat(config.get("two")).isEqualTo("B");
+
+    final FileWatch watch = new FileWatch(config, List.of(), Map.of(), List.of(directory), new Parsers(Collections.emptyList()));
+    List<Set<String>> events = new ArrayList<>();
+    config.onChange(event -> events.add(event.modifiedKeys()));
+    try {
+      watch.check();
+      assertThat(events).isEmpty();
+
+      writeGeneration(dir, "..gen2", "one=a2\ntwo=b", "three=c");
+      Files.createSymbolicLink(dir.resolve("..data_tmp"), Path.of("..gen2"));
+      Files.move(dir.resolve("..data_tmp"), dir.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+
+      watch.check();
+      watch.check();
+      assertThat(events).hasSize(1);
+      assertThat(events.get(0)).containsExactlyInAnyOrder("one", "two");
+      assertThat(config.get("one")).isEqualTo("a2");
+      assertThat(config.get("two")).isEqualTo("b");
+      assertThat(config.get("three")).isEqualTo("c");
+    } finally {
+      config.close();
+    }
+  }
+
+  private static void writeGeneration(Path dir, String generation, String a, String b) throws IOException {
+    final Path gen = Files.createDirectory(dir.resolve(generation));
+    Files.writeString(gen.resolve("10-a.properties"), a);
+    Files.writeString(gen.resolve("20-b.properties"), b);
+  }
+
   private static FileWatch fileWatch(CoreConfiguration config, List<File> files) {
     return new FileWatch(config, files, new Parsers(Collections.emptyList()));
   }
@@ -1,6 +1,19 @@
 package io.avaje.config;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import static io.avaje.config.CoreExpressionEval.evalFor;
 import static io.avaje.config.InitialLoader.Source.RESOURCE;
@@ -46,12 +59,25 @@ class InitialLoaderTest {
     loader.loadWithExtensionCheck("test-dummy2.yaml");
 
     var properties = evalFor(loader.entryMap());
+    assertThat(loader.layers().names()).containsExactly(
+      "resource:test-dummy.properties", "file:test-dummy.properties", "file:test-dummy.yml",
+      "file:test-dummy2.yaml", "runtime");
     assertThat(properties.get("dummy.yaml.bar").value()).isEqualTo("baz");
     assertThat(properties.get("dummy.yml.foo").value()).isEqualTo("bar");
     assertThat(properties.get("dummy.properties.foo").value()).isEqualTo("bar");
     assertThat(properties.get("dummy.properties.a").value()).isEqualTo("fromResource");
   }
 
+  @Test
+  void loadWithExtensionCheck_emptyFile_expect_layerInLoadOrder(@TempDir Path dir) throws Exception {
+    Path empty = Files.writeString(dir.resolve("empty.properties"), "");
+    Path other = Files.writeString(dir.resolve("other.yaml"), "a: 1");
+    InitialLoader loader = newInitialLoader();
+    loader.loadWithExtensionCheck(empty.toString());
+    loader.loadWithExtensionCheck(other.toString());
+    assertThat(loader.layers().names()).containsExactly("file:" + empty, "file:" + other, "runtime");
+  }
+
   @Test
   void loadYaml() {
     InitialLoader loader = newInitialLoader();
@@ -138,4 +164,109 @@ class InitialLoaderTest {
       System.clearProperty("suppressTestResource");
     }
   }
+
+  @Test
+  void load_parallel_expect_sameAsSequential() {
+    assertThat(InitialPrefetch.enabled()).isFalse();
+    InitialLoader sequential = newInitialLoader();
+    sequential.loadViaCommandLine(new String[]{"-P", "test-dummy.properties,test-dummy.yml,test-dummy2.yaml"});
+    var sequentialEntries = entries(sequential.load());
+
+    Map<String, String> parallelEntries;
+    InitialLoader parallel;
+    try {
+      System.setProperty("config.load.parallel", "true");
+      parallel = newInitialLoader();
+      parallel.loadViaCommandLine(new String[]{"-P", "test-dummy.properties,test-dummy.yml,test-dummy2.yaml"});
+      parallelEntries = entries(parallel.load());
+    } finally {
+      System.clearProperty("config.load.parallel");
+    }
+    assertThat(parallelEntries).isEqualTo(sequentialEntries);
+    assertThat(parallelEntries).containsEntry("dummy.properties.a", "fromResource|resource:test-dummy.properties");
+    assertThat(parallel.loadedFrom()).containsExactlyElementsOf(sequential.loadedFrom());
+    assertThat(parallel.layers().names()).containsExactlyElementsOf(sequential.layers().names());
+  }
+
+  @Test
+  void resourceIndex_absent_onlyWhenClassPathIndexed() throws Exception {
+    URL url = new URL("file:/app/application.yaml");
+    Map<String, URL> located = Map.of("application.yaml", url, "application-dev.properties", url);
+    ResourceIndex complete = new ResourceIndex(located, true);
+    assertThat(complete.absent("application.yaml")).isFalse();
+    assertThat(complete.absent("application-dev.properties")).isFalse();
+    assertThat(complete.absent("application.properties")).isTrue();
+    assertThat(complete.absent("application-prod.yaml")).isTrue();
+    // not indexed
+    assertThat(complete.absent("application-test.yaml")).isFalse();
+    assertThat(complete.absent("test-dummy.properties")).isFalse();
+
+    // another class path entry without an index could provide it
+    ResourceIndex partial = new ResourceIndex(located, false);
+    assertThat(partial.absent("application.properties")).isFalse();
+    assertThat(partial.url("application.yaml")).isSameAs(url);
+    assertThat(partial.url("application.properties")).isNull();
+  }
+
+  @Test
+  void resourceIndex_load_scopedToCodeSource(@TempDir Path dir) throws Exception {
+    Path index = dir.resolve(ResourceIndex.PATH);
+    Files.createDirectories(index.getParent());
+    Files.writeString(index, "# comment\napplication.yaml\n");
+    Files.writeString(dir.resolve("application.yaml"), "a: 1");
+    try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, null)) {
+      assertThat(ResourceIndex.load(loader).url("application.yaml")).isNull();
+      System.setProperty("config.resource.index", "true");
+      ResourceIndex resourceIndex = ResourceIndex.load(loader);
+      assertThat(resourceIndex.url("application.yaml")).isEqualTo(dir.resolve("application.yaml").toUri().toURL());
+      // the directory is not on the class path so other resources are unknown
+      assertThat(resourceIndex.absent("application.properties")).isFalse();
+    } finally {
+      System.clearProperty("config.resource.index");
+    }
+    assertThat(ResourceIndex.rootPath("jar:file:/lib/app.jar!/")).isEqualTo(Path.of("/lib/app.jar"));
+    assertThat(ResourceIndex.rootPath("http://host/app/")).isNull();
+  }
+
+  @Test
+  void resourceSnapshot_inDirectory_usedOnlyWhenContentMatches(@TempDir Path dir) throws Exception {
+    byte[] content = "a=1".getBytes(StandardCharsets.ISO_8859_1);
+    Path resource = Files.write(dir.resolve("application.properties"), content);
+    Path snapshotFile = dir.resolve(ResourceSnapshot.DIRECTORY + "application.properties.properties");
+    Files.createDirectories(snapshotFile.getParent());
+    Files.writeString(snapshotFile, ResourceSnapshot.CRC_PREFIX + Long.toHexString(ResourceSnapshot.crc(content)) + "\na=fromSnapshot\n");
+
+    ResourceSnapshot snapshot = ResourceSnapshot.find(resource.toUri().toURL(), "application.properties");
+    assertThat(snapshot).isNotNull();
+    assertThat(snapshot.inJar()).isFalse();
+    assertThat(snapshot.matches(content)).isTrue();
+    assertThat(snapshot.matches("a=2".getBytes(StandardCharsets.ISO_8859_1))).isFalse();
+    assertThat(snapshot.values()).containsExactly(Map.entry("a", "fromSnapshot"));
+
+    // only the snapshot in the same directory as the resource is used
+    Path other = Files.writeString(Files.createDirectory(dir.resolve("other")).resolve("application.properties"), "a=1");
+    assertThat(ResourceSnapshot.find(other.toUri().toURL(), "application.properties")).isNull();
+  }
+
+  @Test
+  void resourceSnapshot_inJar_usedWithoutReadingResource(@TempDir Path dir) throws Exception {
+    Path jar = dir.resolve("app.jar");
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      out.putNextEntry(new JarEntry("application.yaml"));
+      out.write("a: 1".getBytes(StandardCharsets.UTF_8));
+      out.putNextEntry(new JarEntry(ResourceSnapshot.DIRECTORY + "application.yaml.properties"));
+      out.write((ResourceSnapshot.CRC_PREFIX + "1234\na=fromSnapshot\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+    URL resource = new URL("jar:" + jar.toUri() + "!/application.yaml");
+    ResourceSnapshot snapshot = ResourceSnapshot.find(resource, "application.yaml");
+    assertThat(snapshot).isNotNull();
+    assertThat(snapshot.inJar()).isTrue();
+    assertThat(snapshot.values()).containsExactly(Map.entry("a", "fromSnapshot"));
+  }
+
+  private static Map<String, String> entries(CoreEntry.CoreMap map) {
+    Map<String, String> entries = new TreeMap<>();
+    map.forEachWithPrefix("", (key, entry) -> entries.put(key, entry.value() + "|" + entry.source()));
+    return entries;
+  }
 }
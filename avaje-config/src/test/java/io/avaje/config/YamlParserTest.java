@@ -66,6 +66,19 @@ class YamlParserTest {
     assertThat(map.get("other.key2")).isEqualTo("o2");
   }
 
+  @Test
+  void parse_multipleDocs_afterKeyWithoutValue() {
+    parse_multipleDocs_afterKeyWithoutValue(parseYaml2("/yaml/multiple-docs-empty-key.yaml"));
+    parse_multipleDocs_afterKeyWithoutValue(parseYaml("/yaml/multiple-docs-empty-key.yaml"));
+  }
+
+  private void parse_multipleDocs_afterKeyWithoutValue(Map<String, String> map) {
+    assertThat(map).containsOnlyKeys("b.c", "d", "e");
+    assertThat(map.get("b.c")).isEqualTo("1");
+    assertThat(map.get("d")).isEqualTo("x");
+    assertThat(map.get("e")).isEqualTo("2");
+  }
+
   @Test
   void parse_quotedValues() {
     parse_quotedValues(parseYaml2("/yaml/quoted-values.yaml"));
@@ -172,6 +185,23 @@ class YamlParserTest {
     assertThat(map.get("k2")).isEqualTo("dd ee ff");
   }
 
+  @Test
+  void parse_sequences_simple_expect_valuesAsIs() {
+    Map<String, String> map = parseYaml("/yaml/sequences.yaml");
+    assertThat(map).containsOnlyKeys("level", "flow", "block", "app.port", "last");
+    assertThat(map.get("level")).isEqualTo("[info]");
+    assertThat(map.get("flow")).isEqualTo("[a, 'b c']");
+    assertThat(map.get("block")).isEqualTo("- one - two");
+    assertThat(map.get("app.port")).isEqualTo("8080");
+    assertThat(map.get("last")).isEqualTo("z");
+  }
+
+  @Test
+  void parse_sequences_snake_expect_listsIgnored() {
+    Map<String, String> map = parseYaml2("/yaml/sequences.yaml");
+    assertThat(map).containsOnlyKeys("app.port", "last");
+  }
+
   @Test
   void parse_top_vals() {
     assertThatThrownBy(() -> parseYaml("/yaml/err-top-vals.yaml"))
@@ -37,7 +37,7 @@ public final class LogbackPlugin implements ConfigurationPlugin {
       setLogLevel(key, loggerContext, rawLevel);
       log.log(TRACE, "log level {0} for {1}", rawLevel, key);
     }
-    configuration.onChange(this::onChangeAny);
+    configuration.onChange(this::onChangeLogLevel, "log.level.*");
   }
 
   private static void setLogLevel(String key, LoggerContext loggerContext, String level) {
@@ -47,17 +47,17 @@ public final class LogbackPlugin implements ConfigurationPlugin {
     }
   }
 
-  private void onChangeAny(ModificationEvent modificationEvent) {
+  private void onChangeLogLevel(ModificationEvent modificationEvent) {
     final var loggerContext = loggerContext();
     final var config = modificationEvent.configuration();
-    modificationEvent.modifiedKeys().stream()
-      .filter(key -> key.startsWith("log.level."))
-      .forEach(key -> {
+    for (String key : modificationEvent.modifiedKeys()) {
+      if (key.startsWith("log.level.")) {
         String logKey = key.substring(10);
         String rawLevel = config.getNullable(key);
         setLogLevel(logKey, loggerContext, rawLevel);
         log.log(DEBUG, "set log level {0} for {1}", rawLevel, logKey);
-      });
+      }
+    }
   }
 
   private LoggerContext loggerContext() {
@@ -1,10 +1,15 @@
 package io.avaje.config.dynamiclogback;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
 import io.avaje.config.Configuration;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 class LogbackPluginTest {
 
   @Test
@@ -17,5 +22,9 @@ class LogbackPluginTest {
     plugin.apply(config);
 
     config.putAll(Map.of("log.level.other.Foo", "INFO", "log.level.my.Bar", "TRACE"));
+
+    LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    assertThat(loggerContext.getLogger("other.Foo").getLevel()).isEqualTo(Level.INFO);
+    assertThat(loggerContext.getLogger("my.Bar").getLevel()).isEqualTo(Level.TRACE);
   }
 }